@@ -2,9 +2,11 @@ package com.bankingapi.walletapi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class WalletapiApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(WalletapiApplication.class, args);
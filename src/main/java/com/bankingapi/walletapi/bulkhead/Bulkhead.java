@@ -0,0 +1,85 @@
+package com.bankingapi.walletapi.bulkhead;
+
+import com.bankingapi.walletapi.exception.BulkheadFullException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A fixed pool of threads with a bounded queue, reserved for one kind of work. Once every thread
+ * is busy and the queue is full, new work is refused with a {@link BulkheadFullException}
+ * instead of waiting, so a burst of one workload cannot take threads or time from another.
+ */
+public class Bulkhead implements AsyncTaskExecutor {
+
+    private final String name;
+    private final Duration retryAfter;
+    private final Counter rejected;
+    private final ThreadPoolExecutor executor;
+
+    public Bulkhead(String name, BulkheadProperties.Pool pool, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.retryAfter = pool.getRetryAfter();
+        this.rejected = meterRegistry.counter("wallet.bulkhead.rejected", "bulkhead", name);
+        AtomicInteger workers = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(pool.getQueueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + workers.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, ignored) -> reject());
+
+        Gauge.builder("wallet.bulkhead.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+        Gauge.builder("wallet.bulkhead.queued", executor, e -> e.getQueue().size())
+                .tag("bulkhead", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the work on this bulkhead's threads.
+     *
+     * @throws BulkheadFullException right away when the bulkhead has no room left
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, executor);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        return executor.submit(task);
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void reject() {
+        rejected.increment();
+        throw new BulkheadFullException("The " + name + " workload is at capacity. Please retry later.", retryAfter);
+    }
+}
@@ -0,0 +1,30 @@
+package com.bankingapi.walletapi.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Separate thread pools for the two workloads: long running reports (PDF statements, CSV export)
+ * and the money-moving requests. Reports also read through their own connection pool, see
+ * {@link com.bankingapi.walletapi.datasource.ReadRoutingConfiguration}.
+ */
+@Configuration
+public class BulkheadConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead reportingBulkhead(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return new Bulkhead("reporting", properties.getReporting(), meterRegistry);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead transactionalBulkhead(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return new Bulkhead("transactional", properties.getTransactional(), meterRegistry);
+    }
+
+    // Workers of parallel CSV exports, whose requests already hold a reporting thread.
+    @Bean(destroyMethod = "shutdown")
+    public Bulkhead exportBulkhead(BulkheadProperties properties, MeterRegistry meterRegistry) {
+        return new Bulkhead("export", properties.getExport(), meterRegistry);
+    }
+}
@@ -0,0 +1,31 @@
+package com.bankingapi.walletapi.bulkhead;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.bulkhead")
+public class BulkheadProperties {
+
+    private Pool reporting = new Pool(4, 16, Duration.ofSeconds(10));
+
+    private Pool transactional = new Pool(32, 256, Duration.ofSeconds(1));
+
+    private Pool export = new Pool(8, 32, Duration.ofSeconds(10));
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Pool {
+
+        private int threads;
+
+        private int queueCapacity;
+
+        private Duration retryAfter;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bankingapi.walletapi.bulkhead;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Streamed response bodies (CSV exports, PDF statements) are written by Spring MVC's async
+ * executor; pointing it at the reporting bulkhead keeps that work off the request threads and
+ * under the same limit.
+ */
+@Configuration
+public class ReportingAsyncSupport implements WebMvcConfigurer {
+
+    private final Bulkhead reportingBulkhead;
+
+    public ReportingAsyncSupport(@Qualifier("reportingBulkhead") Bulkhead reportingBulkhead) {
+        this.reportingBulkhead = reportingBulkhead;
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(reportingBulkhead);
+    }
+}
@@ -1,8 +1,14 @@
 package com.bankingapi.walletapi.controller;
+import com.bankingapi.walletapi.bulkhead.Bulkhead;
+import com.bankingapi.walletapi.dto.BalanceAsOfResponse;
 import com.bankingapi.walletapi.dto.BankAccountRequest;
 import com.bankingapi.walletapi.dto.BankAccountResponse;
 import com.bankingapi.walletapi.dto.DepositWithdrawRequest;
+import com.bankingapi.walletapi.hotaccount.HotAccountService;
+import com.bankingapi.walletapi.idempotency.IdempotencyService;
+import com.bankingapi.walletapi.service.BalanceHistoryService;
 import com.bankingapi.walletapi.service.BankAccountService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -10,21 +16,36 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpStatus;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/accounts")
 public class BankAccountController {
 
     private final BankAccountService bankAccountService;
+    private final HotAccountService hotAccountService;
+    private final IdempotencyService idempotencyService;
+    private final BalanceHistoryService balanceHistoryService;
+    private final Bulkhead transactionalBulkhead;
 
     @Autowired
-    public BankAccountController(BankAccountService bankAccountService) {
+    public BankAccountController(BankAccountService bankAccountService, HotAccountService hotAccountService,
+                                 IdempotencyService idempotencyService, BalanceHistoryService balanceHistoryService,
+                                 @Qualifier("transactionalBulkhead") Bulkhead transactionalBulkhead) {
         this.bankAccountService = bankAccountService;
+        this.hotAccountService = hotAccountService;
+        this.idempotencyService = idempotencyService;
+        this.balanceHistoryService = balanceHistoryService;
+        this.transactionalBulkhead = transactionalBulkhead;
     }
 
     @Operation(
@@ -141,17 +162,24 @@ public class BankAccountController {
             @ApiResponse(
                     responseCode = "404",
                     description = "Bank account was not found."),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Transfer capacity reached, retry after the Retry-After delay"),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error")
     })
 
     @PostMapping("/{id}/deposit")
-    public ResponseEntity<BankAccountResponse> deposit(
+    public CompletableFuture<ResponseEntity<BankAccountResponse>> deposit(
             @PathVariable Long id,
-            @RequestBody @Valid DepositWithdrawRequest request
+            @RequestBody @Valid DepositWithdrawRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal
     ) {
-        return ResponseEntity.ok(bankAccountService.depositFunds(id, request));
+        return transactionalBulkhead.submit(() -> ResponseEntity.ok(idempotencyService.execute(principal, idempotencyKey,
+                "deposit:" + id, request, new TypeReference<BankAccountResponse>() {},
+                () -> bankAccountService.depositFunds(id, request))));
     }
 
 
@@ -172,17 +200,24 @@ public class BankAccountController {
             @ApiResponse(
                     responseCode = "404",
                     description = "Bank account not found"),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Transfer capacity reached, retry after the Retry-After delay"),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error")
     })
 
     @PostMapping("/{id}/withdraw")
-    public ResponseEntity<BankAccountResponse> withdraw(
+    public CompletableFuture<ResponseEntity<BankAccountResponse>> withdraw(
             @PathVariable Long id,
-            @RequestBody @Valid DepositWithdrawRequest request
+            @RequestBody @Valid DepositWithdrawRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal
     ) {
-        return ResponseEntity.ok(bankAccountService.withdrawFunds(id, request));
+        return transactionalBulkhead.submit(() -> ResponseEntity.ok(idempotencyService.execute(principal, idempotencyKey,
+                "withdraw:" + id, request, new TypeReference<BankAccountResponse>() {},
+                () -> bankAccountService.withdrawFunds(id, request))));
     }
 
     @PutMapping("/{id}/freeze")
@@ -197,4 +232,50 @@ public class BankAccountController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(
+            summary = "Mark a bank account as hot",
+            description = "Spreads deposits to the account over the given number of balance slots; 0 turns it back into a plain account"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Balance slots updated"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid number of slots"),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Bank account not found")
+    })
+
+    @PutMapping("/{id}/hot")
+    public ResponseEntity<Void> setHotSlots(@PathVariable Long id, @RequestParam("slots") int slots) {
+        hotAccountService.setHotSlots(id, slots);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(
+            summary = "Get the balance of a bank account at a point in time",
+            description = "Returns the balance after every transaction created before asOf, read from the nearest monthly checkpoint"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Balance successfully retrieved",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BalanceAsOfResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Bank account not found")
+    })
+
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<BalanceAsOfResponse> getBalanceAsOf(
+            @PathVariable Long id,
+            @RequestParam("asOf") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf
+    ) {
+        return ResponseEntity.ok(new BalanceAsOfResponse(id, asOf, balanceHistoryService.balanceBefore(id, asOf)));
+    }
+
 }
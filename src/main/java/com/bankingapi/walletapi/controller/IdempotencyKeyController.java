@@ -0,0 +1,49 @@
+package com.bankingapi.walletapi.controller;
+
+import com.bankingapi.walletapi.idempotency.IdempotencyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+@RestController
+@RequestMapping("/api/idempotency-keys")
+public class IdempotencyKeyController {
+
+    private final IdempotencyService idempotencyService;
+
+    @Autowired
+    public IdempotencyKeyController(IdempotencyService idempotencyService) {
+        this.idempotencyService = idempotencyService;
+    }
+
+
+    @Operation(
+            summary = "Release an unsettled Idempotency-Key",
+            description = "Frees one of the caller's keys whose request failed with an unknown outcome, so the request "
+                    + "can be sent again. Check the account history first: release the key only if the money did not move"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "204",
+                    description = "Key released"),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "No such key for the caller"),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "The request completed, or may still be running"),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error")
+    })
+    @DeleteMapping("/{key}")
+    public ResponseEntity<Void> releaseKey(@PathVariable String key, Principal principal) {
+        idempotencyService.release(principal, key);
+        return ResponseEntity.noContent().build();
+    }
+}
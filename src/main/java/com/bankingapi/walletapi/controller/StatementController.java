@@ -1,32 +1,42 @@
 package com.bankingapi.walletapi.controller;
 
 import com.bankingapi.walletapi.service.PdfStatementService;
+import com.bankingapi.walletapi.service.StatementPdf;
+import com.bankingapi.walletapi.statement.StatementCache;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/statements")
 public class StatementController {
 
     private final PdfStatementService pdfStatementService;
+    private final StatementCache statementCache;
 
     @Autowired
-    public StatementController(PdfStatementService pdfStatementService) {
+    public StatementController(PdfStatementService pdfStatementService, StatementCache statementCache) {
         this.pdfStatementService = pdfStatementService;
+        this.statementCache = statementCache;
     }
 
     @GetMapping("/pdf")
@@ -39,62 +49,70 @@ public class StatementController {
                     responseCode = "200",
                     description = "PDF successfully generated and downloaded"
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid date range"
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Reporting capacity reached, retry after the Retry-After delay"
+            ),
             @ApiResponse(
                     responseCode ="500",
                     description = "Internal server error"
             )
     })
-    public void downloadPDFStatement(
+    public ResponseEntity<StreamingResponseBody> downloadPDFStatement(
             @RequestParam Long accountId,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
-            HttpServletResponse response
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to
     ) {
-        try {
-            byte[] pdfData = pdfStatementService.generateStatementPdf(accountId, from, to);
-
-            response.setContentType("application/pdf");
-            response.setHeader("Content-Disposition", "attachment; filename=statement.pdf");
-            response.getOutputStream().write(pdfData);
-            response.flushBuffer();
-        } catch (IOException e) {
-            throw new RuntimeException("Error while generating PDF", e);
-        }
-
+        return pdf(pdfStatementService.statement(accountId, from, to));
     }
 
     @GetMapping("/monthly-pdf")
     @Operation(
             summary = "Download monthly PDF statement",
-            description = "Generates a monthly statement as a PDF file"
+            description = "Generates a monthly statement as a PDF file. Rendered statements are cached until a "
+                    + "posting changes them and carry a strong ETag; send it back in If-None-Match to get a 304"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "PDF successfully generated"
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Statement unchanged since the ETag in If-None-Match"
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Reporting capacity reached, retry after the Retry-After delay"),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error")
     })
-    public void downloadMonthlyStatement(
+    public CompletableFuture<ResponseEntity<Resource>> downloadMonthlyStatement(
             @RequestParam Long accountId,
             @RequestParam int year,
-            @RequestParam int month,
-            HttpServletResponse response
+            @RequestParam int month
     ) {
-        try {
-            YearMonth yearMonth = YearMonth.of(year, month);
-            byte[] pdf = pdfStatementService.generateMonthlyStatementPdf(accountId, yearMonth);
-
-            response.setContentType("application/pdf");
-            response.setHeader("Content-Disposition", "attachment; filename=statement.pdf");
-            response.getOutputStream().write(pdf);
-            response.flushBuffer();
+        // Spring MVC answers 304 itself when If-None-Match matches the response's ETag.
+        return statementCache.monthly(accountId, YearMonth.of(year, month)).thenApply(statement -> ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=statement.pdf")
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .eTag(statement.etag())
+                .contentLength(statement.size())
+                .body(new FileSystemResource(statement.file())));
+    }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Error while generating monthly PDF", e);
-        }
+    // The PDF is rendered into the response on the reporting bulkhead, see ReportingAsyncSupport.
+    private static ResponseEntity<StreamingResponseBody> pdf(StatementPdf statement) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=statement.pdf")
+                .body(statement::writeTo);
     }
 
 }
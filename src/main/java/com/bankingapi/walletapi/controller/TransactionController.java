@@ -1,45 +1,72 @@
 package com.bankingapi.walletapi.controller;
 
+import com.bankingapi.walletapi.bulkhead.Bulkhead;
+import com.bankingapi.walletapi.dto.BatchTransferResponse;
 import com.bankingapi.walletapi.dto.TransferRequest;
+import com.bankingapi.walletapi.enums.CountMode;
+import com.bankingapi.walletapi.export.ChunkedExport;
+import com.bankingapi.walletapi.export.ExportChunk;
+import com.bankingapi.walletapi.export.ParallelCsvExporter;
+import com.bankingapi.walletapi.export.TransactionExportFilter;
+import com.bankingapi.walletapi.idempotency.IdempotencyService;
 import com.bankingapi.walletapi.model.Transaction;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.pagination.CursorPage;
 import com.bankingapi.walletapi.service.TransactionService;
+import com.fasterxml.jackson.core.type.TypeReference;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
-import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.bankingapi.walletapi.dto.TransactionResponse;
 
-import java.io.IOException;
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
     private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final Bulkhead transactionalBulkhead;
+    private final ParallelCsvExporter parallelCsvExporter;
 
     @Autowired
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService, IdempotencyService idempotencyService,
+                                 @Qualifier("transactionalBulkhead") Bulkhead transactionalBulkhead,
+                                 ParallelCsvExporter parallelCsvExporter) {
         this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
+        this.transactionalBulkhead = transactionalBulkhead;
+        this.parallelCsvExporter = parallelCsvExporter;
     }
 
 
     @Operation(
             summary = "Get all transactions",
-            description = "Returns all transactions"
+            description = "Returns one page of all transactions. Passing cursor (empty for the first page) switches to keyset "
+                    + "paging in (createdAt, id) order: the body is the page, the next cursor is in the "
+                    + CursorPage.NEXT_CURSOR_HEADER + " header and count chooses an EXACT, ESTIMATE or NONE total"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -53,10 +80,15 @@ public class TransactionController {
                     description = "Internal server error")
     })
     @GetMapping("/paginated")
-    public ResponseEntity<Page<TransactionResponse>> getAllTransactions(
+    public ResponseEntity<?> getAllTransactions(
             @RequestParam(defaultValue ="0") int page,
-            @RequestParam(defaultValue ="5") int size
+            @RequestParam(defaultValue ="5") int size,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "count", defaultValue = "EXACT") CountMode count
             ) {
+        if (cursor != null) {
+            return pageResponse(transactionService.getAllTransactions(cursor, size, count), count);
+        }
         Pageable pageable = PageRequest.of(page, size);
         Page<TransactionResponse> paginatedTransactions = transactionService.getAllTransactions(pageable);
         return ResponseEntity.ok(paginatedTransactions);
@@ -106,20 +138,55 @@ public class TransactionController {
             @ApiResponse(
                     responseCode = "404",
                     description = "Account not found"),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Transfer capacity reached, retry after the Retry-After delay"),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error")
     })
     @PostMapping("/transfer")
-    public ResponseEntity<List<TransactionResponse>> transferFunds(@RequestBody @Valid TransferRequest request) {
-        List<TransactionResponse> result = transactionService.transferFunds(request);
-        return ResponseEntity.ok(result);
+    public CompletableFuture<ResponseEntity<List<TransactionResponse>>> transferFunds(
+            @RequestBody @Valid TransferRequest request,
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            Principal principal) {
+        return transactionalBulkhead.submit(() -> ResponseEntity.ok(idempotencyService.execute(principal, idempotencyKey, "transfer",
+                request, new TypeReference<List<TransactionResponse>>() {}, () -> transactionService.transferFunds(request))));
+    }
+
+
+    @Operation(
+            summary = "Transfer funds in bulk",
+            description = "Applies a list of transfers in one database transaction and reports a result for each item"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Batch processed, see per-item results",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BatchTransferResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid batch request"
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Transfer capacity reached, retry after the Retry-After delay"),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error")
+    })
+    @PostMapping("/transfer/batch")
+    public CompletableFuture<ResponseEntity<BatchTransferResponse>> transferFundsBatch(@RequestBody List<TransferRequest> requests) {
+        return transactionalBulkhead.submit(() -> ResponseEntity.ok(transactionService.transferFundsBatch(requests)));
     }
 
 
     @Operation(
             summary = "Get transactions for a bank account",
-            description = "Returns a list of all transactions associated with a specific account"
+            description = "Returns the account's transactions oldest first. With limit, returns one page and the cursor of the "
+                    + "next page in the " + CursorPage.NEXT_CURSOR_HEADER + " header; pass it back as after"
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -128,6 +195,9 @@ public class TransactionController {
                     content = @Content(mediaType = "application/json",
                             schema = @Schema(implementation = TransactionResponse.class))
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid cursor or limit"),
             @ApiResponse(
                     responseCode = "404",
                     description = "Account not found"),
@@ -136,9 +206,17 @@ public class TransactionController {
                     description = "Internal server error")
     })
     @GetMapping("/account/{accountId}")
-    public ResponseEntity<List<TransactionResponse>> getTransactionsByAccountId(@PathVariable Long accountId) {
-        List<TransactionResponse> history = transactionService.getTransactionsByAccountId(accountId);
-        return ResponseEntity.ok(history);
+    public ResponseEntity<List<TransactionResponse>> getTransactionsByAccountId(
+            @PathVariable Long accountId,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", required = false) Integer limit
+    ) {
+        if (limit == null && after == null) {
+            List<TransactionResponse> history = transactionService.getTransactionsByAccountId(accountId);
+            return ResponseEntity.ok(history);
+        }
+        return pageResponse(transactionService.getTransactionsByAccountId(accountId, after,
+                limit != null ? limit : CursorPage.DEFAULT_LIMIT), CountMode.NONE);
     }
 
 
@@ -191,8 +269,8 @@ public class TransactionController {
 
     @GetMapping("/filter/amount")
     public ResponseEntity<List<TransactionResponse>> getTransactionsByAmountRange(
-            @RequestParam("minAmount") BigDecimal minAmount,
-            @RequestParam("maxAmount") BigDecimal maxAmount
+            @RequestParam("minAmount") Money minAmount,
+            @RequestParam("maxAmount") Money maxAmount
     ) {
         List<TransactionResponse> result = transactionService.getTransactionsByAmountRange(minAmount, maxAmount);
         return ResponseEntity.ok(result);
@@ -200,23 +278,102 @@ public class TransactionController {
 
 
     @Operation(
-            summary = "Export all transactions to CSV file",
-            description = "Exports all transactions in the system as a downloadable CSV file"
+            summary = "Export transactions to CSV file",
+            description = "Streams the transactions in the system as a downloadable CSV file, optionally only those "
+                    + "of one account and/or created in [from, to). With parallel=true the file is read in id-range "
+                    + "chunks in parallel and sent gzip-compressed, exactly one gzip member per chunk, empty ones "
+                    + "included. The " + ParallelCsvExporter.PLAN_HEADER + " header carries the download's plan: a "
+                    + "download broken off after n complete members continues with the resume token of chunk n from "
+                    + "/csv/chunks?plan=, and the resumed bytes are appended to the members already received"
     )
     @ApiResponses(value = {
             @ApiResponse(
                     responseCode = "200",
                     description = "CSV successfully downloaded"
             ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid resume token"),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "Reporting capacity reached, retry after the Retry-After delay"),
             @ApiResponse(
                     responseCode = "500",
                     description = "Internal server error")
     })
     @GetMapping("/csv")
-    public void exportTransactionsToCsv(HttpServletResponse response) throws IOException {
-        response.setContentType("text/csv");
-        response.setHeader("Content-Disposition", "attachment; filename=transactions.csv");
-        transactionService.exportTransactionsToCsv(response.getWriter());
+    public ResponseEntity<StreamingResponseBody> exportTransactionsToCsv(
+            @RequestParam(value = "accountId", required = false) Long accountId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "parallel", defaultValue = "false") boolean parallel,
+            @RequestParam(value = "resume", required = false) String resume
+    ) {
+        TransactionExportFilter filter = new TransactionExportFilter(accountId, from, to);
+        if (parallel || resume != null) {
+            // A resumed download carries its filter and id range in the token and gets no second header.
+            ChunkedExport export = resume != null ? parallelCsvExporter.resume(resume)
+                    : parallelCsvExporter.plan(filter).orElse(null);
+            StreamingResponseBody body = out -> parallelCsvExporter.write(export, resume == null, out);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType("application/gzip"))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.csv.gz");
+            if (export != null) {
+                response.header(ParallelCsvExporter.PLAN_HEADER, parallelCsvExporter.token(export));
+            }
+            return response.body(body);
+        }
+        // The body is written on the reporting bulkhead, see ReportingAsyncSupport. Not a PrintWriter,
+        // which would swallow the write errors that stop the export once the client goes away.
+        StreamingResponseBody body = out -> transactionService.exportTransactionsToCsv(filter,
+                new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=transactions.csv")
+                .body(body);
     }
 
+    @Operation(
+            summary = "List the chunks of a parallel CSV export",
+            description = "The id range and resume token of every chunk of a parallel export, in the order of its "
+                    + "gzip members. With plan, the " + ParallelCsvExporter.PLAN_HEADER + " of a download, they are "
+                    + "the chunks of that download, so a resumed download ends where the original would have; "
+                    + "otherwise a new export with the given filters is planned"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Chunks successfully retrieved"
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid plan token"),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Internal server error")
+    })
+    @GetMapping("/csv/chunks")
+    public ResponseEntity<List<ExportChunk>> getCsvExportChunks(
+            @RequestParam(value = "accountId", required = false) Long accountId,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "plan", required = false) String plan
+    ) {
+        if (plan != null) {
+            return ResponseEntity.ok(parallelCsvExporter.chunks(parallelCsvExporter.resume(plan)));
+        }
+        return ResponseEntity.ok(parallelCsvExporter.chunks(new TransactionExportFilter(accountId, from, to)));
+    }
+
+    private ResponseEntity<List<TransactionResponse>> pageResponse(CursorPage<TransactionResponse> page, CountMode count) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(CursorPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        if (page.total() != null) {
+            response.header(count == CountMode.ESTIMATE ? CursorPage.ESTIMATED_TOTAL_COUNT_HEADER : CursorPage.TOTAL_COUNT_HEADER,
+                    String.valueOf(page.total()));
+        }
+        return response.body(page.items());
+    }
 }
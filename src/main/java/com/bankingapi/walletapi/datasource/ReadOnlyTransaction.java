@@ -0,0 +1,23 @@
+package com.bankingapi.walletapi.datasource;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * A {@code @Transactional(readOnly = true)} service method that may be served by the read pool.
+ * Plain read-only transactions, such as the ones Spring Data opens around repository calls on
+ * the money paths, stay on the primary.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Transactional(readOnly = true, label = ReadOnlyTransaction.LABEL)
+public @interface ReadOnlyTransaction {
+
+    String LABEL = "read-pool";
+}
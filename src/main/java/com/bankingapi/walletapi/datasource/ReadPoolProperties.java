@@ -0,0 +1,26 @@
+package com.bankingapi.walletapi.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.datasource.read")
+public class ReadPoolProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    // Unset means no bound: read transactions use the read pool however far it lags.
+    private Duration maxStaleness;
+
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,64 @@
+package com.bankingapi.walletapi.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool (from {@code spring.datasource.*})
+ * and a read pool (from {@code wallet.datasource.read.*}) behind a {@link RoutingDataSource}.
+ * Both pools are beans, so they report their own {@code hikaricp.connections.*} metrics, tagged
+ * {@code pool=primary} and {@code pool=read}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "wallet.datasource.read", name = "enabled", havingValue = "true")
+public class ReadRoutingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(ReadPoolProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("read");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+                                 @Qualifier("readDataSource") DataSource read, MeterRegistry meterRegistry) {
+        return new RoutingDataSource(primary, read, meterRegistry);
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "shutdown")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("readDataSource") DataSource read, ReadPoolProperties properties,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(read, properties, meterRegistry);
+    }
+
+    @Bean
+    public RoutingJpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                           ReplicaLagMonitor replicaLagMonitor) {
+        return new RoutingJpaTransactionManager(entityManagerFactory, replicaLagMonitor);
+    }
+}
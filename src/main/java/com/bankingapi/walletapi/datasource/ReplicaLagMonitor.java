@@ -0,0 +1,77 @@
+package com.bankingapi.walletapi.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls how far the read pool's server is behind the primary. Only runs when a staleness bound
+ * is configured; read transactions fall back to the primary while the lag is above the bound or
+ * could not be measured.
+ */
+public class ReplicaLagMonitor {
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    // Zero on a server that is not replaying WAL, e.g. a second standalone instance, and on a
+    // standby that has replayed everything it received: with an idle primary the last replayed
+    // transaction keeps getting older although nothing is missing.
+    private static final String LAG_SQL = "select case when not pg_is_in_recovery() then 0 "
+            + "when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0 "
+            + "else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000, 0) end";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadPoolProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile long lagMillis = -1;
+
+    public ReplicaLagMonitor(DataSource read, ReadPoolProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(read);
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Gauge.builder("wallet.datasource.read.lag", this, monitor -> monitor.lagMillis / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    public void start() {
+        if (properties.getMaxStaleness() != null) {
+            long interval = properties.getLagCheckInterval().toMillis();
+            scheduler.scheduleWithFixedDelay(this::measure, 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    public boolean isFresh() {
+        if (properties.getMaxStaleness() == null) {
+            return true;
+        }
+        long lag = lagMillis;
+        return lag >= 0 && lag <= properties.getMaxStaleness().toMillis();
+    }
+
+    private void measure() {
+        try {
+            Number lag = jdbcTemplate.queryForObject(LAG_SQL, Number.class);
+            lagMillis = lag != null ? lag.longValue() : -1;
+        } catch (DataAccessException e) {
+            lagMillis = -1;
+            logger.warn("Could not measure read pool lag, routing reads to the primary: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.bankingapi.walletapi.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Hands out connections from the primary or the read pool. The route is chosen by
+ * {@link RoutingJpaTransactionManager} when a transaction begins, before its connection is
+ * fetched; anything outside a routed transaction goes to the primary.
+ */
+public class RoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        READ
+    }
+
+    // A stack, since a REQUIRES_NEW transaction can begin inside another one.
+    private static final ThreadLocal<Deque<Route>> ROUTES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final Map<Route, Counter> connections = new EnumMap<>(Route.class);
+
+    public RoutingDataSource(DataSource primary, DataSource read, MeterRegistry meterRegistry) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.READ, read));
+        setDefaultTargetDataSource(primary);
+        for (Route route : Route.values()) {
+            connections.put(route, meterRegistry.counter("wallet.datasource.connections", "route", route.name().toLowerCase()));
+        }
+    }
+
+    static void push(Route route) {
+        ROUTES.get().push(route);
+    }
+
+    static void pop() {
+        ROUTES.get().poll();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Route route = ROUTES.get().peek();
+        if (route == null) {
+            route = Route.PRIMARY;
+        }
+        connections.get(route).increment();
+        return route;
+    }
+}
@@ -0,0 +1,41 @@
+package com.bankingapi.walletapi.datasource;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+/**
+ * Picks the connection route of each new transaction: {@link ReadOnlyTransaction} methods go to
+ * the read pool while it is within the staleness bound, everything else to the primary.
+ */
+public class RoutingJpaTransactionManager extends JpaTransactionManager {
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public RoutingJpaTransactionManager(EntityManagerFactory entityManagerFactory, ReplicaLagMonitor lagMonitor) {
+        super(entityManagerFactory);
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        boolean read = definition.isReadOnly() && definition.getLabels().contains(ReadOnlyTransaction.LABEL)
+                && lagMonitor.isFresh();
+        RoutingDataSource.push(read ? RoutingDataSource.Route.READ : RoutingDataSource.Route.PRIMARY);
+        try {
+            super.doBegin(transaction, definition);
+        } catch (RuntimeException | Error e) {
+            RoutingDataSource.pop();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doCleanupAfterCompletion(Object transaction) {
+        try {
+            super.doCleanupAfterCompletion(transaction);
+        } finally {
+            RoutingDataSource.pop();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bankingapi.walletapi.dto;
+
+import com.bankingapi.walletapi.money.Money;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Balance of an account at a point in time")
+public class BalanceAsOfResponse {
+
+    @Schema(
+            description = "ID of the bank account",
+            example = "1"
+    )
+    private Long accountId;
+
+    @Schema(
+            description = "Point in time the balance is given for",
+            example = "2025-03-01T00:00:00"
+    )
+    private LocalDateTime asOf;
+
+    @Schema(
+            description = "Balance after every transaction created before asOf",
+            example = "1500.00"
+    )
+    private Money balance;
+}
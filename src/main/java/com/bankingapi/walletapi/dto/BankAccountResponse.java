@@ -1,8 +1,8 @@
 package com.bankingapi.walletapi.dto;
 
+import com.bankingapi.walletapi.money.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -39,7 +39,7 @@ public class BankAccountResponse {
             description = "Balance of the bank account",
             example = "1000.50"
     )
-    private BigDecimal balance;
+    private Money balance;
 
     @Schema(
             description = "Time bank account was created",
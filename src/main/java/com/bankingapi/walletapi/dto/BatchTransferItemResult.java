@@ -0,0 +1,32 @@
+package com.bankingapi.walletapi.dto;
+
+import com.bankingapi.walletapi.enums.TransferStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Outcome of a single transfer within a batch")
+public class BatchTransferItemResult {
+
+    @Schema(
+            description = "Position of the transfer in the submitted batch",
+            example = "0"
+    )
+    private int index;
+
+    @Schema(
+            description = "Result of the transfer",
+            example = "OK"
+    )
+    private TransferStatus status;
+
+    @Schema(
+            description = "Human readable detail for the result",
+            example = "Transfer completed"
+    )
+    private String message;
+}
@@ -0,0 +1,30 @@
+package com.bankingapi.walletapi.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Response object for a batch of transfers")
+public class BatchTransferResponse {
+
+    @Schema(
+            description = "Number of transfers that were applied",
+            example = "998"
+    )
+    private int succeeded;
+
+    @Schema(
+            description = "Number of transfers that were rejected",
+            example = "2"
+    )
+    private int failed;
+
+    @Schema(description = "Per-transfer results, in submission order")
+    private List<BatchTransferItemResult> results;
+}
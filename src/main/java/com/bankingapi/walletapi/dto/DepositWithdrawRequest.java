@@ -1,12 +1,10 @@
 package com.bankingapi.walletapi.dto;
 
+import com.bankingapi.walletapi.money.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 
-import java.math.BigDecimal;
-
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -18,6 +16,6 @@ public class DepositWithdrawRequest {
             example = "50.00"
     )
     @NotNull
-    private BigDecimal amount;
+    private Money amount;
 
 }
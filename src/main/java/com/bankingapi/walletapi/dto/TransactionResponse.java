@@ -1,12 +1,12 @@
 package com.bankingapi.walletapi.dto;
 
 import com.bankingapi.walletapi.enums.TransactionType;
+import com.bankingapi.walletapi.money.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
@@ -37,7 +37,7 @@ public class TransactionResponse {
             description = "Amount of the transaction",
             example = "500.00"
     )
-    private BigDecimal amount;
+    private Money amount;
 
     @Schema(
             description = "Description of the transaction",
@@ -1,8 +1,8 @@
 package com.bankingapi.walletapi.dto;
 
+import com.bankingapi.walletapi.money.Money;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
-import java.math.BigDecimal;
 import lombok.*;
 
 @Data
@@ -32,7 +32,7 @@ public class TransferRequest {
             example = "750.00"
     )
     @NotNull
-    private BigDecimal amount;
+    private Money amount;
 
 
     @Schema(
@@ -0,0 +1,46 @@
+package com.bankingapi.walletapi.engine;
+
+import com.bankingapi.walletapi.dto.BankAccountResponse;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-memory state of one account. Only ever read or written by the shard worker that owns it.
+ */
+class AccountState {
+
+    final Long id;
+    final String accountNumber;
+    final String accountType;
+    final Long userId;
+    final LocalDateTime createdAt;
+
+    Money balance;
+    Money held = Money.ZERO;
+    boolean frozen;
+    long sequence;
+
+    AccountState(BankAccount account) {
+        this.id = account.getId();
+        this.accountNumber = account.getAccountNumber();
+        this.accountType = account.getAccountType();
+        this.userId = account.getUser().getId();
+        this.createdAt = account.getCreatedAt();
+        this.balance = account.getBalance();
+        this.frozen = account.isFrozen();
+    }
+
+    Money available() {
+        return held.signum() == 0 ? balance : balance.minus(held);
+    }
+
+    BalanceSnapshot snapshot() {
+        return new BalanceSnapshot(id, balance, frozen, ++sequence);
+    }
+
+    BankAccountResponse toResponse() {
+        return new BankAccountResponse(id, accountNumber, accountType, userId, balance, createdAt, frozen);
+    }
+}
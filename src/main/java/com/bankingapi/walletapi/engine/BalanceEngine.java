@@ -0,0 +1,405 @@
+package com.bankingapi.walletapi.engine;
+
+import com.bankingapi.walletapi.dto.BankAccountResponse;
+import com.bankingapi.walletapi.dto.TransactionResponse;
+import com.bankingapi.walletapi.enums.TransactionType;
+import com.bankingapi.walletapi.exception.AccountFrozenException;
+import com.bankingapi.walletapi.exception.EngineUnavailableException;
+import com.bankingapi.walletapi.journal.JournalApplier;
+import com.bankingapi.walletapi.journal.JournalRecord;
+import com.bankingapi.walletapi.journal.TransferJournal;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.service.AccountRules;
+import com.bankingapi.walletapi.service.LedgerService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Optional balance engine (wallet.engine.enabled=true) that keeps the authoritative balance of
+ * every touched account in memory. Accounts are partitioned over single-threaded shard workers by
+ * id, so balance checks run without database locks. Every command is persisted as one
+ * {@link JournalRecord}, holding its entry, postings and balance changes, before it is applied to
+ * the accounts in memory; until then a debit is reserved as a hold. The records are written to
+ * the database asynchronously in batches by the {@link LedgerFlusher}.
+ *
+ * <p>With wallet.journal.enabled=true every record is appended to the {@link TransferJournal}
+ * instead, and the command is applied and answered once the record is durable on disk; the
+ * database is brought up to date from the journal by the {@link JournalApplier}.
+ *
+ * <p>Transfers between accounts on different shards use a two-phase protocol:
+ * <ol>
+ *     <li>the sender's shard validates the debit and places a hold on the amount;</li>
+ *     <li>the receiver's shard validates the receiver and persists the whole transfer, then
+ *     credits the receiver and asks the sender's shard to turn the hold into a debit and answer
+ *     the caller;</li>
+ *     <li>if the receiver rejects, or the record cannot be persisted, the sender's shard releases
+ *     the hold instead.</li>
+ * </ol>
+ * A hold is never persisted, so a crash mid-transfer leaves the database either before or after
+ * the whole transfer.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.engine", name = "enabled", havingValue = "true")
+public class BalanceEngine {
+    private static final Logger logger = LoggerFactory.getLogger(BalanceEngine.class);
+
+    private final ShardWorker[] shards;
+    private final LedgerFlusher flusher;
+    private final JournalApplier journalApplier;
+    private final TransferJournal journal;
+    private final ScheduledExecutorService flushScheduler;
+    private final Duration awaitTimeout;
+    private final Map<Long, BalanceSnapshot> published = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BalanceEngine(EngineProperties properties, BankAccountRepository bankAccountRepository,
+                         JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                         ObjectProvider<JournalApplier> journalApplier) {
+        // The applier replays the journal once the application is ready; commands wait for it.
+        this.journalApplier = journalApplier.getIfAvailable();
+        this.journal = this.journalApplier != null ? this.journalApplier.journal() : null;
+        this.flusher = new LedgerFlusher(jdbcTemplate, new TransactionTemplate(transactionManager),
+                properties.getFlushBatchSize(), properties.getMaxFlushAttempts());
+        this.awaitTimeout = properties.getAwaitTimeout();
+        this.shards = new ShardWorker[properties.getShards()];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new ShardWorker(i, bankAccountRepository,
+                    new LedgerIdAllocator(jdbcTemplate, "ledger_entries_seq"), new LedgerIdAllocator(jdbcTemplate, "transactions_seq"));
+            shards[i].start();
+        }
+
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (journal == null) {
+            long interval = properties.getFlushInterval().toNanos();
+            flushScheduler.scheduleWithFixedDelay(() -> flusher.flush(), interval, interval, TimeUnit.NANOSECONDS);
+        }
+
+        logger.info("Balance engine started with {} shards, persisting through the {}",
+                shards.length, journal != null ? "journal" : "ledger flusher");
+    }
+
+    public CompletableFuture<BankAccountResponse> deposit(Long accountId, Money amount) {
+        awaitReplay();
+        CompletableFuture<BankAccountResponse> result = new CompletableFuture<>();
+        ShardWorker shard = shardFor(accountId);
+        shard.submit(result, () -> {
+            AccountState account = shard.require(accountId, "Account not found");
+            AccountRules.checkDeposit(account.frozen);
+            PendingEntry entry = new PendingEntry(shard.nextEntryId(), LocalDateTime.now(), null, accountId);
+            JournalRecord record = JournalRecord.deposit(entry, amount, shard.nextPostingId());
+
+            whenPersisted(record, shard, result, () -> {
+                account.balance = account.balance.plus(amount);
+                publish(account);
+                result.complete(account.toResponse());
+            }, () -> {
+            });
+        });
+        return result;
+    }
+
+    public CompletableFuture<BankAccountResponse> withdraw(Long accountId, Money amount) {
+        awaitReplay();
+        CompletableFuture<BankAccountResponse> result = new CompletableFuture<>();
+        ShardWorker shard = shardFor(accountId);
+        shard.submit(result, () -> {
+            AccountState account = shard.require(accountId, "Account not found");
+            Money projected = AccountRules.checkWithdrawal(accountId, account.available(), account.frozen, amount);
+            boolean autoFreeze = AccountRules.shouldAutoFreeze(projected);
+            PendingEntry entry = new PendingEntry(shard.nextEntryId(), LocalDateTime.now(), accountId, null);
+            JournalRecord record = JournalRecord.withdrawal(entry, amount, shard.nextPostingId(), autoFreeze);
+
+            account.held = account.held.plus(amount);
+            whenPersisted(record, shard, result, () -> {
+                account.held = account.held.minus(amount);
+                account.balance = account.balance.minus(amount);
+                if (autoFreeze) {
+                    account.frozen = true;
+                    logger.info("Account {} auto-frozen due to overdraft.", accountId);
+                }
+                publish(account);
+                result.complete(account.toResponse());
+            }, () -> account.held = account.held.minus(amount));
+        });
+        return result;
+    }
+
+    public CompletableFuture<List<TransactionResponse>> transfer(Long senderId, Long receiverId, Money amount) {
+        awaitReplay();
+        CompletableFuture<List<TransactionResponse>> result = new CompletableFuture<>();
+        ShardWorker senderShard = shardFor(senderId);
+        ShardWorker receiverShard = shardFor(receiverId);
+
+        senderShard.submit(result, () -> {
+            AccountState sender = senderShard.require(senderId, "Sender account not found.");
+            checkSender(sender, amount);
+
+            if (senderShard == receiverShard) {
+                AccountState receiver = senderShard.require(receiverId, "Receiver account not found.");
+                checkReceiver(receiver);
+                PendingEntry entry = new PendingEntry(senderShard.nextEntryId(), LocalDateTime.now(), senderId, receiverId);
+                long debitId = senderShard.nextPostingId();
+                long creditId = senderShard.nextPostingId();
+
+                sender.held = sender.held.plus(amount);
+                whenPersisted(JournalRecord.transfer(entry, amount, debitId, creditId), senderShard, result, () -> {
+                    sender.held = sender.held.minus(amount);
+                    sender.balance = sender.balance.minus(amount);
+                    receiver.balance = receiver.balance.plus(amount);
+                    publish(sender);
+                    publish(receiver);
+                    result.complete(transferResponses(entry, debitId, creditId, sender.accountNumber, receiver.accountNumber, amount));
+                }, () -> sender.held = sender.held.minus(amount));
+                return;
+            }
+
+            // Phase 1: hold the funds on the sender's shard.
+            sender.held = sender.held.plus(amount);
+            String senderNumber = sender.accountNumber;
+            Runnable release = () -> senderShard.submit(() -> sender.held = sender.held.minus(amount));
+
+            receiverShard.submit(result, () -> {
+                // Phase 2: persist the whole transfer, then credit the receiver and settle the hold.
+                AccountState receiver;
+                PendingEntry entry;
+                long debitId;
+                long creditId;
+                try {
+                    receiver = receiverShard.require(receiverId, "Receiver account not found.");
+                    checkReceiver(receiver);
+                    entry = new PendingEntry(receiverShard.nextEntryId(), LocalDateTime.now(), senderId, receiverId);
+                    debitId = receiverShard.nextPostingId();
+                    creditId = receiverShard.nextPostingId();
+                } catch (RuntimeException e) {
+                    release.run();
+                    throw e;
+                }
+
+                whenPersisted(JournalRecord.transfer(entry, amount, debitId, creditId), receiverShard, result, () -> {
+                    receiver.balance = receiver.balance.plus(amount);
+                    publish(receiver);
+                    senderShard.submit(result, () -> {
+                        sender.held = sender.held.minus(amount);
+                        sender.balance = sender.balance.minus(amount);
+                        publish(sender);
+                        result.complete(transferResponses(entry, debitId, creditId, senderNumber, receiver.accountNumber, amount));
+                    });
+                }, release);
+            });
+        });
+        return result;
+    }
+
+    public CompletableFuture<BankAccountResponse> setFrozen(Long accountId, boolean frozen) {
+        awaitReplay();
+        CompletableFuture<BankAccountResponse> result = new CompletableFuture<>();
+        ShardWorker shard = shardFor(accountId);
+        shard.submit(result, () -> {
+            AccountState account = shard.require(accountId, "Bank account with id " + accountId + " not found");
+            whenPersisted(JournalRecord.frozen(accountId, frozen), shard, result, () -> {
+                account.frozen = frozen;
+                publish(account);
+                result.complete(account.toResponse());
+            }, () -> {
+            });
+        });
+        return result;
+    }
+
+    public CompletableFuture<Void> evict(Long accountId) {
+        awaitReplay();
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        ShardWorker shard = shardFor(accountId);
+        shard.submit(result, () -> {
+            shard.evict(accountId);
+            published.remove(accountId);
+            result.complete(null);
+        });
+        return result;
+    }
+
+    /**
+     * Latest balance published by the owning shard, if the account has been touched by the engine.
+     */
+    public Optional<BalanceSnapshot> snapshot(Long accountId) {
+        return Optional.ofNullable(published.get(accountId));
+    }
+
+    /**
+     * Waits up to wallet.engine.await-timeout for a command; it may still run after a timeout.
+     */
+    public <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(awaitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Balance engine command failed", e.getCause());
+        } catch (TimeoutException e) {
+            throw new EngineUnavailableException("Balance engine did not answer within " + awaitTimeout.toMillis() + " ms.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EngineUnavailableException("Interrupted while waiting for the balance engine.");
+        }
+    }
+
+    /**
+     * State of the ledger flusher, or of the journal and its applier in journal mode, for the
+     * engine's health indicator.
+     */
+    public FlusherHealth flusherHealth() {
+        if (journalApplier != null) {
+            return new FlusherHealth(journalApplier.failures(), journalApplier.lastError(),
+                    journalApplier.quarantined().stream().map(q -> q.position() + " " + q.record() + ": " + q.error()).toList(),
+                    journal.failure());
+        }
+        return new FlusherHealth(flusher.failures(), flusher.lastError(),
+                flusher.quarantined().stream().map(q -> q.record() + ": " + q.error()).toList(), null);
+    }
+
+    /**
+     * Waits until every command submitted so far has run and its ledger rows are in the database.
+     */
+    public void drain() {
+        for (ShardWorker shard : shards) {
+            CompletableFuture<Void> barrier = new CompletableFuture<>();
+            shard.submit(() -> barrier.complete(null));
+            barrier.join();
+        }
+        if (journalApplier != null) {
+            journalApplier.drain();
+            return;
+        }
+        Callable<Boolean> flush = flusher::flush;
+        try {
+            while (!flushScheduler.submit(flush).get()) {
+                Thread.sleep(1);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to drain balance engine", e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        logger.info("Stopping balance engine, flushing pending ledger rows");
+        drain();
+        for (ShardWorker shard : shards) {
+            shard.stop();
+        }
+        flushScheduler.shutdown();
+    }
+
+    // No account may be loaded before the journal replay has brought its row up to date.
+    private void awaitReplay() {
+        if (journalApplier != null) {
+            journalApplier.awaitReplayed(awaitTimeout);
+        }
+    }
+
+    private ShardWorker shardFor(Long accountId) {
+        return shards[(int) Math.floorMod(accountId, (long) shards.length)];
+    }
+
+    private void checkSender(AccountState sender, Money amount) {
+        if (sender.frozen) {
+            throw new AccountFrozenException("Sender account is frozen. Transfer denied.");
+        }
+        AccountRules.checkTransfer(sender.available(), amount);
+    }
+
+    private void checkReceiver(AccountState receiver) {
+        if (receiver.frozen) {
+            throw new AccountFrozenException("Receiver account is frozen. Transfer denied.");
+        }
+    }
+
+    private List<TransactionResponse> transferResponses(PendingEntry entry, long debitId, long creditId,
+                                                        String senderNumber, String receiverNumber, Money amount) {
+        return List.of(toResponse(entry, debitId, entry.senderAccountId(), amount, TransactionType.DEBIT, senderNumber, receiverNumber),
+                toResponse(entry, creditId, entry.receiverAccountId(), amount, TransactionType.CREDIT, senderNumber, receiverNumber));
+    }
+
+    /**
+     * Hands the record to the flusher, which completes at once, or appends it to the journal,
+     * which completes when the record is durable on disk.
+     */
+    private CompletableFuture<Void> persist(JournalRecord record) {
+        if (journal != null) {
+            return journal.append(record);
+        }
+        flusher.enqueue(record);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Persists {@code record}, then applies the command to the shard's accounts, or undoes its
+     * reservation if the record could not be persisted. Must be called on {@code shard}; runs
+     * {@code applied} in place when the record is persisted at once, so nothing else on the shard
+     * sees the gap.
+     */
+    private void whenPersisted(JournalRecord record, ShardWorker shard, CompletableFuture<?> result,
+                               Runnable applied, Runnable released) {
+        CompletableFuture<Void> persisted;
+        try {
+            persisted = persist(record);
+        } catch (RuntimeException e) {
+            released.run();
+            throw e;
+        }
+        if (persisted.isDone() && !persisted.isCompletedExceptionally()) {
+            applied.run();
+            return;
+        }
+        persisted.whenComplete((ignored, error) -> shard.submit(result, () -> {
+            if (error == null) {
+                applied.run();
+                return;
+            }
+            released.run();
+            logger.error("Failed to persist {} record", record.kind(), error);
+            result.completeExceptionally(new EngineUnavailableException(
+                    "The change could not be made durable; its outcome is unknown until the journal is recovered."));
+        }));
+    }
+
+    private void publish(AccountState account) {
+        published.put(account.id, account.snapshot());
+    }
+
+    private TransactionResponse toResponse(PendingEntry entry, long postingId, Long accountId, Money amount,
+                                           TransactionType type, String senderNumber, String receiverNumber) {
+        return new TransactionResponse(postingId, entry.senderAccountId(), entry.receiverAccountId(), amount,
+                LedgerService.describe(type, senderNumber, receiverNumber), entry.createdAt(), accountId, type);
+    }
+}
@@ -0,0 +1,10 @@
+package com.bankingapi.walletapi.engine;
+
+import com.bankingapi.walletapi.money.Money;
+
+/**
+ * Authoritative balance of an account as last published by its owning shard.
+ * {@code sequence} increases with every change so older snapshots can be discarded.
+ */
+public record BalanceSnapshot(Long accountId, Money balance, boolean frozen, long sequence) {
+}
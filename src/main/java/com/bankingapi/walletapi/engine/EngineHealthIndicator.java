@@ -0,0 +1,39 @@
+package com.bankingapi.walletapi.engine;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the balance engine DOWN once the ledger flusher or journal applier has quarantined
+ * records: their balances are live in memory but missing from the database until someone repairs
+ * them. Also DOWN once the journal is fenced, as every change is refused until a restart.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.engine", name = "enabled", havingValue = "true")
+public class EngineHealthIndicator implements HealthIndicator {
+
+    private final BalanceEngine balanceEngine;
+
+    @Autowired
+    public EngineHealthIndicator(BalanceEngine balanceEngine) {
+        this.balanceEngine = balanceEngine;
+    }
+
+    @Override
+    public Health health() {
+        FlusherHealth flusher = balanceEngine.flusherHealth();
+        Health.Builder health = flusher.quarantined().isEmpty() && flusher.journalFailure() == null ? Health.up() : Health.down();
+        health.withDetail("consecutiveFlushFailures", flusher.consecutiveFailures())
+                .withDetail("quarantined", flusher.quarantined());
+        if (flusher.lastError() != null) {
+            health.withDetail("lastError", flusher.lastError());
+        }
+        if (flusher.journalFailure() != null) {
+            health.withDetail("journalFailure", flusher.journalFailure());
+        }
+        return health.build();
+    }
+}
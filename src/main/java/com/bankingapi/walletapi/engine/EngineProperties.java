@@ -0,0 +1,25 @@
+package com.bankingapi.walletapi.engine;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.engine")
+public class EngineProperties {
+
+    private boolean enabled = false;
+
+    private int shards = 4;
+
+    private Duration flushInterval = Duration.ofMillis(5);
+
+    private int flushBatchSize = 1000;
+
+    // Times in a row the database may reject a batch before its bad rows are quarantined.
+    private int maxFlushAttempts = 5;
+
+    // How long a request waits for its command before answering 503.
+    private Duration awaitTimeout = Duration.ofSeconds(10);
+}
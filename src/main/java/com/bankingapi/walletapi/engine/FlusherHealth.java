@@ -0,0 +1,10 @@
+package com.bankingapi.walletapi.engine;
+
+import java.util.List;
+
+/**
+ * State of the ledger flusher or journal applier: failed writes in a row, the last error and the
+ * records it gave up on; in journal mode also why the journal was fenced, if it was.
+ */
+public record FlusherHealth(int consecutiveFailures, String lastError, List<String> quarantined, String journalFailure) {
+}
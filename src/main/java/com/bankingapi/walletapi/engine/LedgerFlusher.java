@@ -0,0 +1,120 @@
+package com.bankingapi.walletapi.engine;
+
+import com.bankingapi.walletapi.journal.JournalRecord;
+import com.bankingapi.walletapi.journal.LedgerRecordWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Drains the commands accepted by the shard workers and writes them to the database in batches,
+ * one transaction per batch. Each command is queued as one {@link JournalRecord} carrying its
+ * entry, every posting and the balance deltas, so a batch never holds half a transfer. Only the
+ * flusher thread calls {@link #flush()}.
+ *
+ * <p>A batch that fails is retried as a whole. Once it has been rejected by the database's
+ * constraints {@code maxAttempts} times in a row it is written record by record instead, and
+ * whatever still fails is quarantined: logged, kept in memory and reported by the engine's health,
+ * so the records queued behind it are persisted again. Connection failures never count as rejections.
+ */
+class LedgerFlusher {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerFlusher.class);
+
+    /**
+     * Records the database kept rejecting, with the error they were rejected with.
+     */
+    record Quarantined(JournalRecord record, String error) {
+    }
+
+    private final Queue<JournalRecord> records = new ConcurrentLinkedQueue<>();
+    private final Queue<Quarantined> quarantined = new ConcurrentLinkedQueue<>();
+    private final LedgerRecordWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+
+    private final List<JournalRecord> batch = new ArrayList<>();
+    private int rejections;
+    private volatile int failures;
+    private volatile String lastError;
+
+    LedgerFlusher(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, int batchSize, int maxAttempts) {
+        this.writer = new LedgerRecordWriter(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+    }
+
+    /**
+     * Records touching the same account must be enqueued in the order they were applied to it.
+     */
+    void enqueue(JournalRecord record) {
+        records.offer(record);
+    }
+
+    /**
+     * Failed attempts in a row at writing the current batch; 0 while flushing succeeds.
+     */
+    int failures() {
+        return failures;
+    }
+
+    String lastError() {
+        return lastError;
+    }
+
+    List<Quarantined> quarantined() {
+        return List.copyOf(quarantined);
+    }
+
+    /**
+     * Writes one batch and returns whether everything queued so far has been persisted.
+     */
+    boolean flush() {
+        // A batch that failed last time is retried before anything new is drained.
+        JournalRecord record;
+        while (batch.size() < batchSize && (record = records.poll()) != null) {
+            batch.add(record);
+        }
+        if (batch.isEmpty()) {
+            return true;
+        }
+
+        try {
+            write(batch);
+        } catch (RuntimeException e) {
+            failures++;
+            lastError = String.valueOf(e.getMessage());
+            if (!(e instanceof DataIntegrityViolationException) || ++rejections < maxAttempts) {
+                logger.error("Failed to persist {} ledger records, will retry", batch.size(), e);
+                return false;
+            }
+            logger.error("Database rejected {} ledger records {} times, isolating the bad ones", batch.size(), rejections, e);
+            batch.forEach(this::writeOrQuarantine);
+        }
+        batch.clear();
+        rejections = 0;
+        failures = 0;
+        return records.isEmpty();
+    }
+
+    private void writeOrQuarantine(JournalRecord record) {
+        try {
+            write(List.of(record));
+        } catch (RuntimeException e) {
+            logger.error("Quarantined {}; it is not in the database", record, e);
+            quarantined.add(new Quarantined(record, String.valueOf(e.getMessage())));
+        }
+    }
+
+    private void write(List<JournalRecord> batch) {
+        transactionTemplate.executeWithoutResult(status -> writer.write(batch));
+    }
+}
@@ -0,0 +1,31 @@
+package com.bankingapi.walletapi.engine;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Hands out ids from a sequence using the same pooled scheme as Hibernate, so rows written by the
+ * engine and by JPA never collide. Each shard owns one allocator per sequence.
+ */
+class LedgerIdAllocator {
+
+    // Must match the allocationSize of the @SequenceGenerator on LedgerEntry and Transaction.
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextvalSql;
+    private long next = 1;
+    private long hi = 0;
+
+    LedgerIdAllocator(JdbcTemplate jdbcTemplate, String sequence) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nextvalSql = "select nextval('" + sequence + "')";
+    }
+
+    long nextId() {
+        if (next > hi) {
+            hi = jdbcTemplate.queryForObject(nextvalSql, Long.class);
+            next = hi - ALLOCATION_SIZE + 1;
+        }
+        return next++;
+    }
+}
@@ -0,0 +1,9 @@
+package com.bankingapi.walletapi.engine;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ledger entry header accepted by the engine but not yet written to {@code ledger_entries}.
+ */
+public record PendingEntry(Long id, LocalDateTime createdAt, Long senderAccountId, Long receiverAccountId) {
+}
@@ -0,0 +1,117 @@
+package com.bankingapi.walletapi.engine;
+
+import com.bankingapi.walletapi.exception.ResourceNotFoundException;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single thread that owns a slice of the accounts. Commands arrive on a lock-free queue and run
+ * one at a time, so the account state it holds needs no locking.
+ */
+class ShardWorker implements Runnable {
+    private static final Logger logger = LoggerFactory.getLogger(ShardWorker.class);
+
+    private final int index;
+    private final Queue<Runnable> inbox = new ConcurrentLinkedQueue<>();
+    private final Map<Long, AccountState> accounts = new HashMap<>();
+    private final BankAccountRepository bankAccountRepository;
+    private final LedgerIdAllocator entryIds;
+    private final LedgerIdAllocator postingIds;
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    ShardWorker(int index, BankAccountRepository bankAccountRepository, LedgerIdAllocator entryIds, LedgerIdAllocator postingIds) {
+        this.index = index;
+        this.bankAccountRepository = bankAccountRepository;
+        this.entryIds = entryIds;
+        this.postingIds = postingIds;
+        this.thread = new Thread(this, "balance-shard-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    boolean isIdle() {
+        return inbox.isEmpty();
+    }
+
+    void submit(Runnable command) {
+        inbox.offer(command);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Runs {@code command} on this shard and fails {@code result} if it throws.
+     */
+    void submit(CompletableFuture<?> result, Runnable command) {
+        submit(() -> {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            Runnable command = inbox.poll();
+            if (command == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                logger.error("Unhandled error on balance shard {}", index, e);
+            }
+        }
+    }
+
+    AccountState find(Long accountId) {
+        AccountState state = accounts.get(accountId);
+        if (state == null) {
+            state = bankAccountRepository.findById(accountId).map(AccountState::new).orElse(null);
+            if (state != null) {
+                accounts.put(accountId, state);
+            }
+        }
+        return state;
+    }
+
+    AccountState require(Long accountId, String notFoundMessage) {
+        AccountState state = find(accountId);
+        if (state == null) {
+            throw new ResourceNotFoundException(notFoundMessage);
+        }
+        return state;
+    }
+
+    void evict(Long accountId) {
+        accounts.remove(accountId);
+    }
+
+    long nextEntryId() {
+        return entryIds.nextId();
+    }
+
+    long nextPostingId() {
+        return postingIds.nextId();
+    }
+}
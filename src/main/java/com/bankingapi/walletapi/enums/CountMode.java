@@ -0,0 +1,7 @@
+package com.bankingapi.walletapi.enums;
+
+public enum CountMode {
+    EXACT,
+    ESTIMATE,
+    NONE
+}
@@ -0,0 +1,9 @@
+package com.bankingapi.walletapi.enums;
+
+public enum TransferStatus {
+    OK,
+    INSUFFICIENT_FUNDS,
+    FROZEN,
+    NOT_FOUND,
+    INVALID
+}
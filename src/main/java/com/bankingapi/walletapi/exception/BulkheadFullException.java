@@ -0,0 +1,18 @@
+package com.bankingapi.walletapi.exception;
+
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+// A RejectedExecutionException so Spring MVC's async handling treats it like any other rejection.
+public class BulkheadFullException extends RejectedExecutionException {
+    private final Duration retryAfter;
+
+    public BulkheadFullException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,7 @@
+package com.bankingapi.walletapi.exception;
+
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
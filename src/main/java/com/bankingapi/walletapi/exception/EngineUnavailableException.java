@@ -0,0 +1,8 @@
+package com.bankingapi.walletapi.exception;
+
+// The command may still complete after this is thrown, so callers must not treat it as a rejection.
+public class EngineUnavailableException extends RuntimeException {
+    public EngineUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bankingapi.walletapi.export;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * An export of the postings matching {@code filter} with ids from {@code firstId} through
+ * {@code lastId}, split into chunks of consecutive ids. The upper bound is fixed when the export
+ * is planned, so resuming it does not pick up postings written in the meantime. Handed to clients
+ * as a resume token only through {@link com.bankingapi.walletapi.pagination.CursorCodec}.
+ */
+public record ChunkedExport(TransactionExportFilter filter, long firstId, long lastId) {
+
+    public ChunkedExport resumeAt(long id) {
+        return new ChunkedExport(filter, id, lastId);
+    }
+
+    /**
+     * The filter of the chunk starting at {@code start}, which ends {@code chunkIds} ids later or
+     * at the end of the export.
+     */
+    public TransactionExportFilter chunk(long start, int chunkIds) {
+        return filter.withIds(start, Math.min(lastId, start + chunkIds - 1));
+    }
+
+    String payload() {
+        return nullable(filter.accountId()) + "|" + nullable(filter.from()) + "|" + nullable(filter.to())
+                + "|" + firstId + "|" + lastId;
+    }
+
+    static ChunkedExport fromPayload(String payload) {
+        try {
+            String[] parts = payload.split("\\|", -1);
+            TransactionExportFilter filter = new TransactionExportFilter(
+                    parts[0].isEmpty() ? null : Long.valueOf(parts[0]),
+                    parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]),
+                    parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]));
+            return new ChunkedExport(filter, Long.parseLong(parts[3]), Long.parseLong(parts[4]));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid resume token");
+        }
+    }
+
+    private static String nullable(Object value) {
+        return value != null ? value.toString() : "";
+    }
+}
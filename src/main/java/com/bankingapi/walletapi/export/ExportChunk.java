@@ -0,0 +1,8 @@
+package com.bankingapi.walletapi.export;
+
+/**
+ * One chunk of a parallel export: the inclusive id range it covers and the token that restarts
+ * the export at it.
+ */
+public record ExportChunk(int index, long firstId, long lastId, String resumeToken) {
+}
@@ -0,0 +1,19 @@
+package com.bankingapi.walletapi.export;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.export")
+public class ExportProperties {
+
+    // Rows the driver fetches per round trip; bounds the export's heap use, not its total size.
+    private int fetchSize = 1000;
+
+    private int flushRows = 500;
+
+    // Parallel export: width of a chunk's id range, and how many chunks one export reads at once.
+    private int chunkIds = 100_000;
+
+    private int parallelism = 4;
+}
@@ -0,0 +1,162 @@
+package com.bankingapi.walletapi.export;
+
+import com.bankingapi.walletapi.bulkhead.Bulkhead;
+import com.bankingapi.walletapi.pagination.CursorCodec;
+import com.bankingapi.walletapi.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzip-compressed CSV export that reads and compresses chunks of the id range in parallel on the
+ * export bulkhead and writes them to the client in id order. Every chunk is exactly one complete
+ * gzip member, empty chunks included, and the CSV header travels in the first one; concatenated
+ * members are one valid gzip stream. A download broken off after n complete members is continued
+ * with the resume token of chunk n of the download's own plan, from {@link #chunks(ChunkedExport)},
+ * and appended to what was received. At most {@code parallelism} chunks of an export are in
+ * memory at once.
+ */
+@Component
+public class ParallelCsvExporter {
+
+    /**
+     * Response header carrying the signed plan of a parallel download.
+     */
+    public static final String PLAN_HEADER = "X-Export-Plan";
+
+    private static final int GZIP_BUFFER = 64 * 1024;
+
+    private final TransactionService transactionService;
+    private final TransactionRowCursor transactionRowCursor;
+    private final CursorCodec cursorCodec;
+    private final Bulkhead exportBulkhead;
+    private final ExportProperties properties;
+
+    @Autowired
+    public ParallelCsvExporter(TransactionService transactionService, TransactionRowCursor transactionRowCursor,
+                               CursorCodec cursorCodec, @Qualifier("exportBulkhead") Bulkhead exportBulkhead,
+                               ExportProperties properties) {
+        this.transactionService = transactionService;
+        this.transactionRowCursor = transactionRowCursor;
+        this.cursorCodec = cursorCodec;
+        this.exportBulkhead = exportBulkhead;
+        this.properties = properties;
+    }
+
+    /**
+     * Fixes the id range of a new export, or empty when no posting matches the filter.
+     */
+    public Optional<ChunkedExport> plan(TransactionExportFilter filter) {
+        return transactionRowCursor.bounds(filter);
+    }
+
+    /**
+     * The signed token of {@code export}: it resumes the export at its first chunk and lists its
+     * chunks through {@link #chunks(ChunkedExport)}.
+     */
+    public String token(ChunkedExport export) {
+        return cursorCodec.sign(export.payload());
+    }
+
+    public ChunkedExport resume(String token) {
+        try {
+            return ChunkedExport.fromPayload(cursorCodec.verify(token));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid resume token");
+        }
+    }
+
+    /**
+     * The chunks a new export of the filter is written in, with the token that resumes at each.
+     * A download plans its own export, which may end at a later id; to resume a download use the
+     * plan it returned in {@link #PLAN_HEADER} instead.
+     */
+    public List<ExportChunk> chunks(TransactionExportFilter filter) {
+        return plan(filter).map(this::chunks).orElse(List.of());
+    }
+
+    /**
+     * The chunks {@code export} is written in, in the order of its gzip members.
+     */
+    public List<ExportChunk> chunks(ChunkedExport export) {
+        List<ExportChunk> chunks = new ArrayList<>();
+        int index = 0;
+        for (long start = export.firstId(); start <= export.lastId(); start += properties.getChunkIds()) {
+            TransactionExportFilter chunk = export.chunk(start, properties.getChunkIds());
+            chunks.add(new ExportChunk(index++, chunk.fromId(), chunk.toId(), token(export.resumeAt(start))));
+        }
+        return chunks;
+    }
+
+    /**
+     * Writes the export into {@code out} as one gzip member per chunk of {@code export}, the first
+     * starting with the CSV header when {@code header} is set. Without any chunk only the header
+     * member is written, if asked for.
+     */
+    public void write(ChunkedExport export, boolean header, OutputStream out) throws IOException {
+        if (export == null) {
+            if (header) {
+                out.write(compress(writer -> new TransactionCsvWriter(writer, 1).writeHeader()));
+                out.flush();
+            }
+            return;
+        }
+        int chunkIds = properties.getChunkIds();
+        Deque<CompletableFuture<byte[]>> inFlight = new ArrayDeque<>();
+        long next = export.firstId();
+        try {
+            while (next <= export.lastId() || !inFlight.isEmpty()) {
+                while (next <= export.lastId() && inFlight.size() < properties.getParallelism()) {
+                    TransactionExportFilter chunk = export.chunk(next, chunkIds);
+                    boolean withHeader = header && next == export.firstId();
+                    inFlight.add(exportBulkhead.submit(() -> compressChunk(chunk, withHeader)));
+                    next += chunkIds;
+                }
+                // Empty chunks are written too, so the n-th member is always the n-th chunk.
+                out.write(inFlight.poll().join());
+                out.flush();
+            }
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            // Chunks still running finish on their own; their output is dropped.
+            inFlight.forEach(future -> future.cancel(false));
+        }
+    }
+
+    private byte[] compressChunk(TransactionExportFilter chunk, boolean header) {
+        return compress(writer -> {
+            if (header) {
+                new TransactionCsvWriter(writer, 1).writeHeader();
+            }
+            transactionService.exportTransactionRowsToCsv(chunk, writer);
+        });
+    }
+
+    private static byte[] compress(Consumer<Writer> content) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(buffer, GZIP_BUFFER), StandardCharsets.UTF_8)) {
+            content.accept(writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,111 @@
+package com.bankingapi.walletapi.export;
+
+import com.bankingapi.walletapi.dto.TransactionResponse;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Formats transactions as CSV lines into a writer. One line buffer is reused for every row and
+ * the writer is flushed every {@code flushRows} rows, so the client receives the export as it is
+ * read instead of when the output buffer happens to fill up. Write failures, typically the client
+ * going away, surface as {@link UncheckedIOException} so the caller stops reading.
+ */
+public class TransactionCsvWriter {
+
+    public static final String HEADER = "Transaction ID, Sender ID, Receiver ID, Amount, Description,CreatedAt";
+
+    private static final String NONE = "N/A";
+
+    private final Writer writer;
+    private final int flushRows;
+    private final StringBuilder line = new StringBuilder(160);
+    private char[] chars = new char[160];
+    private long rows;
+
+    public TransactionCsvWriter(Writer writer, int flushRows) {
+        this.writer = writer;
+        this.flushRows = flushRows;
+    }
+
+    public void writeHeader() {
+        line.setLength(0);
+        line.append(HEADER).append('\n');
+        emit();
+    }
+
+    public void write(TransactionResponse transaction) {
+        line.setLength(0);
+        line.append(transaction.getTransactionId()).append(',');
+        appendOrNone(transaction.getSenderId());
+        line.append(',');
+        appendOrNone(transaction.getReceiverId());
+        line.append(',').append(transaction.getAmount()).append(',');
+        appendQuoted(transaction.getDescription());
+        line.append(',').append(transaction.getCreatedAt()).append('\n');
+        emit();
+        if (++rows % flushRows == 0) {
+            flush();
+        }
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void appendOrNone(Long id) {
+        if (id != null) {
+            line.append(id.longValue());
+        } else {
+            line.append(NONE);
+        }
+    }
+
+    // RFC 4180: a field holding a comma, quote or line break is quoted with its quotes doubled.
+    private void appendQuoted(String value) {
+        if (value == null) {
+            return;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            line.append(value);
+            return;
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        line.append('"');
+    }
+
+    // Writer.append(CharSequence) would copy the line into a new String first.
+    private void emit() {
+        int length = line.length();
+        if (chars.length < length) {
+            chars = new char[Math.max(length, chars.length * 2)];
+        }
+        line.getChars(0, length, chars, 0);
+        try {
+            writer.write(chars, 0, length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
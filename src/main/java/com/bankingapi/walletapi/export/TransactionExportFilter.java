@@ -0,0 +1,22 @@
+package com.bankingapi.walletapi.export;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional restrictions of a transaction export. Null fields do not restrict; the date range is
+ * half-open, {@code from} inclusive and {@code to} exclusive, and the id range is inclusive.
+ */
+public record TransactionExportFilter(Long accountId, LocalDateTime from, LocalDateTime to, Long fromId, Long toId) {
+
+    public TransactionExportFilter(Long accountId, LocalDateTime from, LocalDateTime to) {
+        this(accountId, from, to, null, null);
+    }
+
+    public static TransactionExportFilter all() {
+        return new TransactionExportFilter(null, null, null);
+    }
+
+    public TransactionExportFilter withIds(long fromId, long toId) {
+        return new TransactionExportFilter(accountId, from, to, fromId, toId);
+    }
+}
@@ -0,0 +1,132 @@
+package com.bankingapi.walletapi.export;
+
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.TransactionRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Reads {@link TransactionRow}s through a forward-only cursor. The PostgreSQL driver
+ * only fetches {@code fetchSize} rows at a time when the connection is not in auto-commit, so
+ * callers must run inside a transaction; otherwise the whole result is buffered client side.
+ */
+@Component
+public class TransactionRowCursor {
+
+    private static final String SELECT = """
+            select p.id, p.account_id, p.amount, e.created_at, s.id as sender_id, r.id as receiver_id,
+                   s.account_number as sender_number, r.account_number as receiver_number, e.description
+            from ledger_postings p
+            join ledger_entries e on e.id = p.entry_id
+            left join bank_accounts s on s.id = e.sender_account_id
+            left join bank_accounts r on r.id = e.receiver_account_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ExportProperties properties;
+
+    @Autowired
+    public TransactionRowCursor(JdbcTemplate jdbcTemplate, ExportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+    }
+
+    public void forEach(TransactionExportFilter filter, Consumer<TransactionRow> action) {
+        query(filter, "order by p.id", action);
+    }
+
+    /**
+     * Like {@link #forEach} in (created_at, id) order, the order of an account's history.
+     */
+    public void forEachByCreatedAt(TransactionExportFilter filter, Consumer<TransactionRow> action) {
+        query(filter, "order by p.created_at, p.id", action);
+    }
+
+    /**
+     * The postings created in [from, to) of every account with an id from {@code firstAccountId}
+     * through {@code lastAccountId}, in one query, grouped by account in (created_at, id) order.
+     */
+    public void forEachInAccountRange(long firstAccountId, long lastAccountId, LocalDateTime from, LocalDateTime to,
+                                      Consumer<TransactionRow> action) {
+        query(SELECT + "where p.account_id between ? and ? and p.created_at >= ? and p.created_at < ? "
+                + "order by p.account_id, p.created_at, p.id", List.of(firstAccountId, lastAccountId, from, to), action);
+    }
+
+    private void query(TransactionExportFilter filter, String orderBy, Consumer<TransactionRow> action) {
+        List<Object> args = new ArrayList<>();
+        String sql = SELECT + where(filter, args) + orderBy;
+        query(sql, args, action);
+    }
+
+    private void query(String sql, List<Object> args, Consumer<TransactionRow> action) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(properties.getFetchSize());
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(new TransactionRow(
+                rs.getLong("id"),
+                rs.getLong("account_id"),
+                Money.of(rs.getBigDecimal("amount")),
+                rs.getObject("created_at", LocalDateTime.class),
+                rs.getObject("sender_id", Long.class),
+                rs.getObject("receiver_id", Long.class),
+                rs.getString("sender_number"),
+                rs.getString("receiver_number"),
+                rs.getString("description"))));
+    }
+
+    /**
+     * The lowest and highest posting id matching the filter, as an export from the first to the
+     * last of them, or empty when nothing matches.
+     */
+    public Optional<ChunkedExport> bounds(TransactionExportFilter filter) {
+        List<Object> args = new ArrayList<>();
+        Map<String, Object> ids = jdbcTemplate.queryForMap("select min(p.id) as first_id, max(p.id) as last_id "
+                + "from ledger_postings p " + where(filter, args), args.toArray());
+        Number first = (Number) ids.get("first_id");
+        Number last = (Number) ids.get("last_id");
+        return first == null ? Optional.empty()
+                : Optional.of(new ChunkedExport(filter, first.longValue(), last.longValue()));
+    }
+
+    private static String where(TransactionExportFilter filter, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (filter.accountId() != null) {
+            conditions.add("p.account_id = ?");
+            args.add(filter.accountId());
+        }
+        // Bounds on the postings' created_at, the partition key, so only the months in range are read.
+        if (filter.from() != null) {
+            conditions.add("p.created_at >= ?");
+            args.add(filter.from());
+        }
+        if (filter.to() != null) {
+            conditions.add("p.created_at < ?");
+            args.add(filter.to());
+        }
+        if (filter.fromId() != null) {
+            conditions.add("p.id >= ?");
+            args.add(filter.fromId());
+        }
+        if (filter.toId() != null) {
+            conditions.add("p.id <= ?");
+            args.add(filter.toId());
+        }
+        return conditions.isEmpty() ? "" : "where " + String.join(" and ", conditions) + " ";
+    }
+}
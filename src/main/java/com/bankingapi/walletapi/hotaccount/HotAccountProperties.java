@@ -0,0 +1,15 @@
+package com.bankingapi.walletapi.hotaccount;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.hot-accounts")
+public class HotAccountProperties {
+
+    private int maxSlots = 64;
+
+    private Duration foldInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,178 @@
+package com.bankingapi.walletapi.hotaccount;
+
+import com.bankingapi.walletapi.engine.BalanceEngine;
+import com.bankingapi.walletapi.exception.ResourceNotFoundException;
+import com.bankingapi.walletapi.model.BalanceSlot;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BalanceSlotRepository;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.repository.TransactionRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sub-balance splitting for accounts that receive many concurrent deposits. A hot account with
+ * K slots takes each credit on one random slot row instead of its own row, so up to K deposits
+ * proceed in parallel. Debits fold the slots into the account first (slot rows are always locked
+ * after the account row), and a background job folds them periodically. Slot deposits are
+ * recorded without a balance_after; folding settles them against the new account balance.
+ *
+ * <p>The balance engine already serializes each account in memory, so slots are only used on the
+ * JPA money paths; with the engine enabled any leftover slots are folded once the application is
+ * ready, and the folded accounts are evicted so the engine reloads them.
+ */
+@Service
+public class HotAccountService {
+    private static final Logger logger = LoggerFactory.getLogger(HotAccountService.class);
+
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceSlotRepository balanceSlotRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final HotAccountProperties properties;
+    private final BalanceEngine balanceEngine;
+    private final boolean engineEnabled;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public HotAccountService(BankAccountRepository bankAccountRepository, BalanceSlotRepository balanceSlotRepository,
+                             TransactionRepository transactionRepository, PlatformTransactionManager transactionManager, HotAccountProperties properties,
+                             ObjectProvider<BalanceEngine> balanceEngine) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceSlotRepository = balanceSlotRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.balanceEngine = balanceEngine.getIfAvailable();
+        this.engineEnabled = this.balanceEngine != null;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-account-folder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Right after the journal replay, which may still be updating the hot accounts' rows.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    public void start() {
+        if (engineEnabled) {
+            List<Long> hotAccountIds = bankAccountRepository.findHotAccountIds();
+            foldAll();
+            hotAccountIds.forEach(accountId -> balanceEngine.await(balanceEngine.evict(accountId)));
+            return;
+        }
+        long interval = properties.getFoldInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::foldAll, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Marks an account as hot with the given number of slots, or back to a plain account with 0.
+     */
+    public void setHotSlots(Long accountId, int slots) {
+        if (slots < 0 || slots > properties.getMaxSlots()) {
+            throw new IllegalArgumentException("Slots must be between 0 and " + properties.getMaxSlots());
+        }
+        if (engineEnabled && slots > 0) {
+            throw new IllegalArgumentException("Hot accounts are not used while the balance engine is enabled");
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            BankAccount account = bankAccountRepository.findByIdForUpdate(accountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Bank account with id " + accountId + " not found"));
+            fold(account);
+            balanceSlotRepository.deleteAll(balanceSlotRepository.findByAccount_Id(accountId));
+            balanceSlotRepository.flush();
+
+            List<BalanceSlot> created = new ArrayList<>(slots);
+            for (int i = 0; i < slots; i++) {
+                created.add(new BalanceSlot(null, account, i, Money.ZERO));
+            }
+            balanceSlotRepository.saveAll(created);
+
+            account.setHotSlots(slots);
+            bankAccountRepository.save(account);
+        });
+        logger.info("Account {} now has {} balance slots", accountId, slots);
+    }
+
+    /**
+     * Credits a random slot of a hot account. Returns false if the account has no slots (any
+     * more), in which case the caller credits the account row itself.
+     */
+    public boolean credit(BankAccount account, Money amount) {
+        if (account.getHotSlots() <= 0) {
+            return false;
+        }
+        int slot = ThreadLocalRandom.current().nextInt(account.getHotSlots());
+        return balanceSlotRepository.credit(account.getId(), slot, amount.toBigDecimal()) == 1;
+    }
+
+    /**
+     * Moves the slot balances of a hot account into its row. Must run inside the transaction
+     * that will save the account.
+     */
+    public void fold(BankAccount account) {
+        if (account.getHotSlots() <= 0) {
+            return;
+        }
+        Money folded = Money.ZERO;
+        for (BalanceSlot slot : balanceSlotRepository.findByAccountIdForUpdate(account.getId())) {
+            folded = folded.plus(slot.getBalance());
+            slot.setBalance(Money.ZERO);
+        }
+        if (folded.signum() == 0) {
+            return;
+        }
+        account.setBalance(account.getBalance().plus(folded));
+        transactionRepository.settleTail(account.getId(), account.getBalance().toBigDecimal());
+    }
+
+    /**
+     * Balance of the account including the slots not yet folded into its row. Both are read in
+     * one statement, so a concurrent fold cannot drop or double-count slot money.
+     */
+    public Money balanceOf(BankAccount account) {
+        if (account.getHotSlots() <= 0) {
+            return account.getBalance();
+        }
+        return Money.of(bankAccountRepository.findBalanceWithSlots(account.getId()));
+    }
+
+    public void foldAll() {
+        for (Long accountId : bankAccountRepository.findHotAccountIds()) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        bankAccountRepository.findByIdForUpdate(accountId).ifPresent(account -> {
+                            fold(account);
+                            bankAccountRepository.save(account);
+                        }));
+            } catch (RuntimeException e) {
+                logger.error("Failed to fold balance slots of account {}", accountId, e);
+            }
+        }
+    }
+}
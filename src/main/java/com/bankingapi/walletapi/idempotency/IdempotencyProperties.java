@@ -0,0 +1,24 @@
+package com.bankingapi.walletapi.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.idempotency")
+public class IdempotencyProperties {
+
+    private int cacheSize = 10_000;
+
+    private Duration ttl = Duration.ofHours(24);
+
+    private Duration waitTimeout = Duration.ofSeconds(10);
+
+    private Duration pollInterval = Duration.ofMillis(50);
+
+    // A claim without a response must be this old before its caller may release it.
+    private Duration settleAfter = Duration.ofMinutes(1);
+
+    private Duration purgeInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,406 @@
+package com.bankingapi.walletapi.idempotency;
+
+import com.bankingapi.walletapi.engine.BalanceEngine;
+import com.bankingapi.walletapi.exception.AccountFrozenException;
+import com.bankingapi.walletapi.exception.BulkheadFullException;
+import com.bankingapi.walletapi.exception.ConcurrentUpdateException;
+import com.bankingapi.walletapi.exception.IdempotencyKeyReusedException;
+import com.bankingapi.walletapi.exception.InsufficientFundsException;
+import com.bankingapi.walletapi.exception.ResourceNotFoundException;
+import com.bankingapi.walletapi.model.IdempotencyRecord;
+import com.bankingapi.walletapi.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a money-moving request at most once per caller and {@code Idempotency-Key} and replays its
+ * first response to retries. Completed responses are kept in a bounded in-memory cache in front of
+ * the {@code idempotency_keys} table; a duplicate that arrives while the original is still
+ * running waits for it instead of executing again.
+ *
+ * <p>On the database paths the money-moving transaction stores the response itself through
+ * {@link #record}, so the key and the money movement commit or roll back together. Of two
+ * concurrent requests with one key, the second blocks on the first one's row, finds it taken, rolls
+ * back and replays the stored response.
+ *
+ * <p>The balance engine moves money outside any database transaction, so there the key is claimed
+ * before the request runs and the response stored afterwards. The claim is released only when the
+ * request was rejected before changing anything; any other failure leaves it in place, and retries
+ * are refused until the caller checks the account and settles the key with {@link #release}.
+ */
+@Service
+public class IdempotencyService {
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private record Outcome(String requestHash, Object response) {
+    }
+
+    private record InFlight(String requestHash, CompletableFuture<Object> result) {
+    }
+
+    // The keyed request running on this thread, for record() to store in its transaction.
+    private static final class Pending {
+        private final String key;
+        private final String requestHash;
+        private boolean committed;
+
+        private Pending(String key, String requestHash) {
+            this.key = key;
+            this.requestHash = requestHash;
+        }
+    }
+
+    // Rolls back the transaction of a request whose key another request committed first.
+    private static final class KeyTakenException extends RuntimeException {
+        private KeyTakenException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final IdempotencyProperties properties;
+    private final boolean claimFirst;
+    private final BoundedTtlCache<String, Outcome> completed;
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ThreadLocal<Pending> pending = new ThreadLocal<>();
+    private final ScheduledExecutorService purger;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager, IdempotencyProperties properties,
+                              ObjectProvider<BalanceEngine> balanceEngine) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.claimFirst = balanceEngine.getIfAvailable() != null;
+        this.completed = new BoundedTtlCache<>(properties.getCacheSize(), properties.getTtl());
+        this.purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = properties.getPurgeInterval().toMillis();
+        purger.scheduleWithFixedDelay(this::purgeExpired, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purger.shutdown();
+    }
+
+    /**
+     * Runs {@code action} unless a request of the same caller with the same key has already run,
+     * in which case its response is returned. Requests without a key always run.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Principal principal, String key, String operation, Object request, TypeReference<T> responseType,
+                         Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String scopedKey = scope(principal, key);
+        String requestHash = hash(operation, request);
+
+        Outcome outcome = completed.get(scopedKey);
+        if (outcome != null) {
+            checkSameRequest(key, outcome.requestHash(), requestHash);
+            return (T) outcome.response();
+        }
+
+        InFlight mine = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight original = inFlight.putIfAbsent(scopedKey, mine);
+        if (original != null) {
+            checkSameRequest(key, original.requestHash(), requestHash);
+            return (T) await(original.result());
+        }
+
+        try {
+            T response = claimFirst
+                    ? claimAndRun(scopedKey, key, requestHash, responseType, action)
+                    : runRecorded(scopedKey, key, requestHash, responseType, action);
+            completed.put(scopedKey, new Outcome(requestHash, response));
+            mine.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            mine.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(scopedKey, mine);
+        }
+    }
+
+    /**
+     * Stores {@code response} as the outcome of the keyed request running on this thread, in the
+     * transaction that moves its money. Called at the end of that transaction; does nothing for
+     * requests without a key.
+     *
+     * @throws IllegalStateException when no transaction is active
+     */
+    public <T> T record(T response) {
+        Pending request = pending.get();
+        if (request == null) {
+            return response;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Idempotent responses must be recorded inside the transaction that moves the money");
+        }
+        if (repository.insertCompleted(request.key, request.requestHash, write(response), LocalDateTime.now()) == 0) {
+            throw new KeyTakenException();
+        }
+        // A retried transaction records again; only the attempt that commits counts.
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                request.committed = status == STATUS_COMMITTED;
+            }
+        });
+        return response;
+    }
+
+    /**
+     * Releases the caller's claim on a key whose request failed without a known outcome, once
+     * the caller has checked that its money did not move, so the request may be sent again.
+     *
+     * @throws ResourceNotFoundException when the caller holds no such key
+     * @throws ConcurrentUpdateException when the request completed or may still be running
+     */
+    public void release(Principal principal, String key) {
+        String scopedKey = scope(principal, key);
+        if (inFlight.containsKey(scopedKey)) {
+            throw new ConcurrentUpdateException("A request with this Idempotency-Key is still in progress.");
+        }
+        IdempotencyRecord record = repository.findById(scopedKey)
+                .orElseThrow(() -> new ResourceNotFoundException("Idempotency-Key " + key + " not found."));
+        if (record.getResponseBody() != null) {
+            throw new ConcurrentUpdateException("The request with Idempotency-Key " + key + " completed; it cannot be released.");
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getSettleAfter());
+        Integer released = transactionTemplate.execute(status -> repository.releaseClaim(scopedKey, cutoff));
+        if (released == null || released == 0) {
+            throw new ConcurrentUpdateException("The request with Idempotency-Key " + key + " may still be running. "
+                    + "Retry the release after " + properties.getSettleAfter().toSeconds() + "s.");
+        }
+        logger.info("Released idempotency claim {} of {}", scopedKey, principal != null ? principal.getName() : null);
+    }
+
+    private <T> T runRecorded(String scopedKey, String key, String requestHash, TypeReference<T> responseType,
+                              Supplier<T> action) {
+        Optional<T> stored = awaitStored(scopedKey, key, requestHash, responseType, false);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+
+        Pending request = new Pending(scopedKey, requestHash);
+        pending.set(request);
+        T response;
+        try {
+            response = action.get();
+        } catch (KeyTakenException e) {
+            // Another request with the key committed first and this one rolled back.
+            return awaitStored(scopedKey, key, requestHash, responseType, true).orElseThrow();
+        } finally {
+            pending.remove();
+        }
+        if (!request.committed) {
+            logger.warn("Operation for idempotency key {} did not record its response in its transaction", scopedKey);
+            String body = write(response);
+            transactionTemplate.executeWithoutResult(status ->
+                    repository.insertCompleted(scopedKey, requestHash, body, LocalDateTime.now()));
+        }
+        return response;
+    }
+
+    private <T> T claimAndRun(String scopedKey, String key, String requestHash, TypeReference<T> responseType,
+                              Supplier<T> action) {
+        while (true) {
+            Integer claimed = transactionTemplate.execute(status -> repository.claim(scopedKey, requestHash, LocalDateTime.now()));
+            if (claimed != null && claimed == 1) {
+                return run(scopedKey, action);
+            }
+            // Claimed by another instance, or by an earlier run that is still going or was never settled.
+            Optional<T> stored = awaitStored(scopedKey, key, requestHash, responseType, false);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+        }
+    }
+
+    private <T> T run(String scopedKey, Supplier<T> action) {
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            if (rejectedBeforeAnyChange(e)) {
+                transactionTemplate.executeWithoutResult(status -> repository.deleteById(scopedKey));
+            } else {
+                logger.warn("Idempotent request {} failed with an unknown outcome; its key stays claimed until released", scopedKey, e);
+            }
+            throw e;
+        }
+        String body = write(response);
+        transactionTemplate.executeWithoutResult(status -> repository.complete(scopedKey, body, LocalDateTime.now()));
+        return response;
+    }
+
+    // The engine raises these from its checks, before it changes a balance or persists anything.
+    private static boolean rejectedBeforeAnyChange(RuntimeException e) {
+        return e instanceof InsufficientFundsException || e instanceof AccountFrozenException
+                || e instanceof ResourceNotFoundException || e instanceof IllegalArgumentException
+                || e instanceof BulkheadFullException;
+    }
+
+    /**
+     * The response stored for the key, waiting while the key is claimed without one. Empty when
+     * the key is free; with {@code taken} set, a free key is waited on too, as its holder is
+     * known to have committed.
+     */
+    private <T> Optional<T> awaitStored(String scopedKey, String key, String requestHash, TypeReference<T> responseType,
+                                        boolean taken) {
+        long deadline = System.nanoTime() + properties.getWaitTimeout().toNanos();
+        while (true) {
+            Optional<IdempotencyRecord> record = repository.findById(scopedKey);
+            if (record.isPresent()) {
+                checkSameRequest(key, record.get().getRequestHash(), requestHash);
+                if (record.get().getResponseBody() != null) {
+                    return Optional.of(read(record.get().getResponseBody(), responseType));
+                }
+            } else if (!taken) {
+                return Optional.empty();
+            }
+            if (System.nanoTime() - deadline > 0) {
+                throw new ConcurrentUpdateException("A request with this Idempotency-Key is still in progress or has an "
+                        + "unknown outcome; check the account and release the key before retrying.");
+            }
+            sleep();
+        }
+    }
+
+    private void checkSameRequest(String key, String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key " + key + " was already used for a different request.");
+        }
+    }
+
+    private Object await(CompletableFuture<Object> result) {
+        try {
+            return result.get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConcurrentUpdateException("A request with this Idempotency-Key is still in progress.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while waiting for the original request.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        }
+    }
+
+    private void purgeExpired() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minus(properties.getTtl());
+            Integer purged = transactionTemplate.execute(status -> repository.deleteCreatedBefore(cutoff));
+            logger.debug("Purged {} expired idempotency keys", purged);
+        } catch (RuntimeException e) {
+            logger.error("Failed to purge expired idempotency keys", e);
+        }
+    }
+
+    // Keys belong to the caller: the same key sent by two callers names two requests.
+    private String scope(Principal principal, String key) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        MessageDigest digest = sha256();
+        digest.update((principal != null ? principal.getName() : "").getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(key.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private String hash(String operation, Object request) {
+        try {
+            MessageDigest digest = sha256();
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String write(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to store idempotent response", e);
+        }
+    }
+
+    private <T> T read(String body, TypeReference<T> responseType) {
+        try {
+            return objectMapper.readValue(body, responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored idempotent response", e);
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(properties.getPollInterval().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while waiting for the original request.");
+        }
+    }
+}
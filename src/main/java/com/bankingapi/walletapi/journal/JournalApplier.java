@@ -0,0 +1,217 @@
+package com.bankingapi.walletapi.journal;
+
+import com.bankingapi.walletapi.exception.EngineUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains durable journal records into the ledger tables and {@code bank_accounts}. The applied
+ * position is stored in {@code journal_checkpoint} in the same database transaction as the rows
+ * it covers, so every record is applied exactly once. Once the application is ready, after the
+ * startup migrations, everything between the checkpoint and the end of the journal is replayed;
+ * the engine holds back commands until {@link #awaitReplayed(Duration)} returns.
+ *
+ * <p>A batch the database's constraints reject is retried; after {@code wallet.journal.max-apply-attempts}
+ * rejections in a row it is applied record by record, and a record that is still rejected is
+ * quarantined: logged, kept in memory for the engine's health and skipped by the checkpoint, so
+ * the records behind it are applied again. Connection failures never count as rejections.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.journal", name = "enabled", havingValue = "true")
+public class JournalApplier {
+    private static final Logger logger = LoggerFactory.getLogger(JournalApplier.class);
+
+    private final TransferJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerRecordWriter writer;
+    private final TransactionTemplate transactionTemplate;
+    private final JournalProperties properties;
+    private final ScheduledExecutorService scheduler;
+    private final CompletableFuture<Void> replayed = new CompletableFuture<>();
+
+    /**
+     * A record the database rejected and the applier skipped, with its position in the journal.
+     */
+    public record Quarantined(long position, JournalRecord record, String error) {
+    }
+
+    private final Queue<Quarantined> quarantined = new ConcurrentLinkedQueue<>();
+
+    private long appliedPosition;
+    private long isolateUntil;
+    private int rejections;
+    private volatile int failures;
+    private volatile String lastError;
+
+    @Autowired
+    public JournalApplier(TransferJournal journal, JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          JournalProperties properties) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.writer = new LedgerRecordWriter(jdbcTemplate);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "journal-applier");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs before the other ready listeners so they see the replayed rows.
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void recover() {
+        try {
+            appliedPosition = jdbcTemplate.queryForObject("select applied_position from journal_checkpoint where id = 1", Long.class);
+            long from = appliedPosition;
+            applyDurable();
+            logger.info("Journal replayed from position {} to {}", from, appliedPosition);
+        } catch (RuntimeException e) {
+            replayed.completeExceptionally(e);
+            throw e;
+        }
+        replayed.complete(null);
+
+        long interval = properties.getApplyInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::applyQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Waits until the startup replay is done, so no account is loaded from a row it has not reached.
+     */
+    public void awaitReplayed(Duration timeout) {
+        try {
+            replayed.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new EngineUnavailableException("Journal replay is still running.");
+        } catch (ExecutionException e) {
+            throw new EngineUnavailableException("Journal replay failed: " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EngineUnavailableException("Interrupted while waiting for the journal replay.");
+        }
+    }
+
+    public TransferJournal journal() {
+        return journal;
+    }
+
+    /**
+     * Failed attempts in a row at applying the next batch; 0 while applying succeeds.
+     */
+    public int failures() {
+        return failures;
+    }
+
+    public String lastError() {
+        return lastError;
+    }
+
+    public List<Quarantined> quarantined() {
+        return List.copyOf(quarantined);
+    }
+
+    /**
+     * Applies everything that is durable right now. Does nothing before the startup replay, as
+     * nothing can have been journaled since.
+     */
+    public void drain() {
+        if (replayed.isDone() && !replayed.isCompletedExceptionally()) {
+            applyDurable();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private void applyDurable() {
+        long target = journal.sync();
+        while (appliedPosition < target) {
+            applyBatch();
+        }
+    }
+
+    private void applyQuietly() {
+        try {
+            applyBatch();
+        } catch (RuntimeException e) {
+            logger.error("Failed to apply journal records from position {}, will retry", appliedPosition, e);
+        }
+    }
+
+    private synchronized void applyBatch() {
+        // While isolating a rejected batch, records are applied one at a time up to its end.
+        boolean isolating = appliedPosition < isolateUntil;
+        List<JournalRecord> records = new ArrayList<>();
+        long next = journal.read(appliedPosition, isolating ? 1 : properties.getApplyBatchSize(), records);
+        if (next == appliedPosition) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> apply(records, next));
+        } catch (RuntimeException e) {
+            failures++;
+            lastError = String.valueOf(e.getMessage());
+            if (!(e instanceof DataIntegrityViolationException)) {
+                throw e;
+            }
+            if (!isolating) {
+                if (++rejections < properties.getMaxApplyAttempts()) {
+                    logger.error("Database rejected {} journal records from position {}, will retry",
+                            records.size(), appliedPosition, e);
+                } else {
+                    logger.error("Database rejected {} journal records from position {} {} times, isolating the bad ones",
+                            records.size(), appliedPosition, rejections, e);
+                    isolateUntil = next;
+                    rejections = 0;
+                }
+                return;
+            }
+            logger.error("Quarantined journal record {} at position {}; it is not in the database",
+                    records.get(0), appliedPosition, e);
+            quarantined.add(new Quarantined(appliedPosition, records.get(0), lastError));
+            transactionTemplate.executeWithoutResult(status -> checkpoint(next));
+        }
+        rejections = 0;
+        failures = 0;
+        appliedPosition = next;
+        journal.release(appliedPosition);
+    }
+
+    private void apply(List<JournalRecord> records, long next) {
+        writer.write(records);
+        checkpoint(next);
+    }
+
+    private void checkpoint(long next) {
+        jdbcTemplate.update("update journal_checkpoint set applied_position = ? where id = 1", next);
+    }
+}
@@ -0,0 +1,26 @@
+package com.bankingapi.walletapi.journal;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.journal")
+public class JournalProperties {
+
+    private boolean enabled = false;
+
+    private String directory = "data/journal";
+
+    private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+    private Duration groupCommitInterval = Duration.ofNanos(200_000);
+
+    private Duration applyInterval = Duration.ofMillis(10);
+
+    private int applyBatchSize = 1000;
+
+    private int maxApplyAttempts = 5;
+}
@@ -0,0 +1,82 @@
+package com.bankingapi.walletapi.journal;
+
+import com.bankingapi.walletapi.engine.PendingEntry;
+import com.bankingapi.walletapi.money.Money;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * One money movement (or freeze change) as written to the journal. Encoded as a fixed 58 byte
+ * payload: kind, flags, timestamp in microseconds, amount in cents, sender, receiver, the ledger
+ * entry id and the ids of its debit and credit postings. Absent ids are written as 0.
+ */
+public record JournalRecord(Kind kind, boolean freezeSender, LocalDateTime createdAt, Money amount,
+                            Long senderId, Long receiverId, Long entryId, Long debitPostingId, Long creditPostingId) {
+
+    public enum Kind {
+        DEPOSIT,
+        WITHDRAWAL,
+        TRANSFER,
+        FREEZE,
+        UNFREEZE
+    }
+
+    static final int PAYLOAD_BYTES = 2 + 7 * Long.BYTES;
+
+    public static JournalRecord deposit(PendingEntry entry, Money amount, long creditPostingId) {
+        return new JournalRecord(Kind.DEPOSIT, false, entry.createdAt(), amount,
+                null, entry.receiverAccountId(), entry.id(), null, creditPostingId);
+    }
+
+    public static JournalRecord withdrawal(PendingEntry entry, Money amount, long debitPostingId, boolean freezeSender) {
+        return new JournalRecord(Kind.WITHDRAWAL, freezeSender, entry.createdAt(), amount,
+                entry.senderAccountId(), null, entry.id(), debitPostingId, null);
+    }
+
+    public static JournalRecord transfer(PendingEntry entry, Money amount, long debitPostingId, long creditPostingId) {
+        return new JournalRecord(Kind.TRANSFER, false, entry.createdAt(), amount,
+                entry.senderAccountId(), entry.receiverAccountId(), entry.id(), debitPostingId, creditPostingId);
+    }
+
+    public static JournalRecord frozen(Long accountId, boolean frozen) {
+        return new JournalRecord(frozen ? Kind.FREEZE : Kind.UNFREEZE, false, LocalDateTime.now(), Money.ZERO,
+                accountId, null, null, null, null);
+    }
+
+    byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_BYTES);
+        buffer.put((byte) kind.ordinal());
+        buffer.put((byte) (freezeSender ? 1 : 0));
+        buffer.putLong(createdAt.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + createdAt.getNano() / 1_000);
+        buffer.putLong(amount.cents());
+        buffer.putLong(orZero(senderId));
+        buffer.putLong(orZero(receiverId));
+        buffer.putLong(orZero(entryId));
+        buffer.putLong(orZero(debitPostingId));
+        buffer.putLong(orZero(creditPostingId));
+        return buffer.array();
+    }
+
+    static JournalRecord decode(byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.wrap(payload);
+        Kind kind = Kind.values()[buffer.get()];
+        boolean freezeSender = buffer.get() == 1;
+        long micros = buffer.getLong();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+        Money amount = Money.ofCents(buffer.getLong());
+        return new JournalRecord(kind, freezeSender, createdAt, amount,
+                orNull(buffer.getLong()), orNull(buffer.getLong()), orNull(buffer.getLong()), orNull(buffer.getLong()),
+                orNull(buffer.getLong()));
+    }
+
+    private static long orZero(Long id) {
+        return id != null ? id : 0L;
+    }
+
+    private static Long orNull(long id) {
+        return id != 0L ? id : null;
+    }
+}
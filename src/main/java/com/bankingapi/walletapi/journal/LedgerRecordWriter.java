@@ -0,0 +1,119 @@
+package com.bankingapi.walletapi.journal;
+
+import com.bankingapi.walletapi.money.Money;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes engine commands to the ledger tables and {@code bank_accounts}: the entry, its postings,
+ * the balance deltas and freeze flags of each record. Balances are applied as deltas and every
+ * posting's balance after it is computed from the balances as they stand in the database, so a
+ * record is written whole or not at all. Must run inside the caller's transaction.
+ */
+public class LedgerRecordWriter {
+
+    private static final String INSERT_ENTRY_SQL =
+            "insert into ledger_entries (id, created_at, sender_account_id, receiver_account_id) values (?, ?, ?, ?)";
+    private static final String INSERT_POSTING_SQL =
+            "insert into ledger_postings (id, entry_id, account_id, created_at, amount, balance_after) values (?, ?, ?, ?, ?, ?)";
+    private static final String APPLY_DELTA_SQL =
+            "update bank_accounts set balance = balance + ?, version = version + 1 where id = ?";
+    private static final String APPLY_FROZEN_SQL =
+            "update bank_accounts set frozen = ?, version = version + 1 where id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    public LedgerRecordWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Writes {@code records} in order.
+     */
+    public void write(List<JournalRecord> records) {
+        // Postings carry the balance after them, so walk the records in order from the balances
+        // as they stand before them.
+        Map<Long, Money> balances = loadBalances(records);
+        List<Object[]> entries = new ArrayList<>();
+        List<Object[]> postings = new ArrayList<>();
+        Map<Long, Money> deltas = new HashMap<>();
+        Map<Long, Boolean> frozen = new LinkedHashMap<>();
+
+        for (JournalRecord record : records) {
+            if (record.entryId() != null) {
+                entries.add(new Object[]{record.entryId(), Timestamp.valueOf(record.createdAt()),
+                        record.senderId(), record.receiverId()});
+            }
+            switch (record.kind()) {
+                case DEPOSIT -> postings.add(posting(record, record.creditPostingId(), record.receiverId(), record.amount(),
+                        balances, deltas));
+                case WITHDRAWAL -> {
+                    postings.add(posting(record, record.debitPostingId(), record.senderId(), record.amount().negate(),
+                            balances, deltas));
+                    if (record.freezeSender()) {
+                        frozen.put(record.senderId(), true);
+                    }
+                }
+                case TRANSFER -> {
+                    postings.add(posting(record, record.debitPostingId(), record.senderId(), record.amount().negate(),
+                            balances, deltas));
+                    postings.add(posting(record, record.creditPostingId(), record.receiverId(), record.amount(),
+                            balances, deltas));
+                }
+                case FREEZE -> frozen.put(record.senderId(), true);
+                case UNFREEZE -> frozen.put(record.senderId(), false);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ENTRY_SQL, entries);
+        jdbcTemplate.batchUpdate(INSERT_POSTING_SQL, postings);
+        jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, deltas.entrySet().stream()
+                .map(e -> new Object[]{e.getValue().toBigDecimal(), e.getKey()})
+                .toList());
+        jdbcTemplate.batchUpdate(APPLY_FROZEN_SQL, frozen.entrySet().stream()
+                .map(e -> new Object[]{e.getValue(), e.getKey()})
+                .toList());
+    }
+
+    private Object[] posting(JournalRecord record, Long postingId, Long accountId, Money signedAmount,
+                             Map<Long, Money> balances, Map<Long, Money> deltas) {
+        Money balanceAfter = balances.merge(accountId, signedAmount, Money::plus);
+        deltas.merge(accountId, signedAmount, Money::plus);
+        return new Object[]{postingId, record.entryId(), accountId, Timestamp.valueOf(record.createdAt()), signedAmount.toBigDecimal(),
+                balanceAfter.toBigDecimal()};
+    }
+
+    private Map<Long, Money> loadBalances(List<JournalRecord> records) {
+        Set<Long> accountIds = new LinkedHashSet<>();
+        for (JournalRecord record : records) {
+            if (record.kind() == JournalRecord.Kind.FREEZE || record.kind() == JournalRecord.Kind.UNFREEZE) {
+                continue;
+            }
+            if (record.senderId() != null) {
+                accountIds.add(record.senderId());
+            }
+            if (record.receiverId() != null) {
+                accountIds.add(record.receiverId());
+            }
+        }
+        Map<Long, Money> balances = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return balances;
+        }
+        namedJdbcTemplate.query("select id, balance from bank_accounts where id in (:ids)", Map.of("ids", accountIds),
+                (RowCallbackHandler) rs -> balances.put(rs.getLong("id"), Money.of(rs.getBigDecimal("balance"))));
+        return balances;
+    }
+}
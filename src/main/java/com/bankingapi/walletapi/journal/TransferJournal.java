@@ -0,0 +1,343 @@
+package com.bankingapi.walletapi.journal;
+
+import com.bankingapi.walletapi.exception.EngineUnavailableException;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only write-ahead journal of money movements stored in fixed-size memory-mapped segment
+ * files. Appends only copy into the mapping; a group-commit thread forces the dirty segments to
+ * disk every {@code wallet.journal.group-commit-interval} and completes the futures of every
+ * record that became durable, so many writers share one fsync.
+ *
+ * <p>Records are addressed by a logical position ({@code segment base + offset}) and never span
+ * segments. Each record is {@code [int length][int crc32c][payload]}; a length of -1 marks the
+ * unused tail of a segment and a length of 0 marks the end of the journal.
+ *
+ * <p>A failed write or fsync fences the journal: what reached the disk is unknown, so every
+ * pending future fails, later appends are refused and nothing more is made durable until the
+ * application is restarted and the journal recovered from disk.
+ */
+@Component
+@ConditionalOnProperty(prefix = "wallet.journal", name = "enabled", havingValue = "true")
+public class TransferJournal {
+    private static final Logger logger = LoggerFactory.getLogger(TransferJournal.class);
+
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int END_OF_SEGMENT = -1;
+    private static final String SUFFIX = ".seg";
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long groupCommitNanos;
+    private final ConcurrentSkipListMap<Long, MappedByteBuffer> segments = new ConcurrentSkipListMap<>();
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+    private final Object commitLock = new Object();
+    private final Thread committer;
+
+    private MappedByteBuffer current;
+    private long writePosition;
+    private volatile long durablePosition;
+    private volatile boolean running = true;
+    private volatile String failure;
+
+    private record Waiter(long end, CompletableFuture<Void> durable) {
+    }
+
+    @Autowired
+    public TransferJournal(JournalProperties properties) throws IOException {
+        this.directory = Path.of(properties.getDirectory());
+        this.segmentSize = properties.getSegmentSize().toBytes();
+        this.groupCommitNanos = properties.getGroupCommitInterval().toNanos();
+        Files.createDirectories(directory);
+
+        recover();
+
+        this.committer = new Thread(this::runGroupCommit, "journal-group-commit");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Appends a record and returns a future that completes once it is on disk, or fails if the
+     * journal is fenced before then. Throws {@link EngineUnavailableException} if it already is.
+     */
+    public CompletableFuture<Void> append(JournalRecord record) {
+        byte[] payload = record.encode();
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        int total = HEADER_BYTES + payload.length;
+        CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        synchronized (this) {
+            if (failure != null) {
+                throw new EngineUnavailableException("Journal is fenced after a failed write: " + failure);
+            }
+            int offset = (int) (writePosition % segmentSize);
+            if (offset + total > segmentSize) {
+                MappedByteBuffer next;
+                try {
+                    next = mapSegment(writePosition + segmentSize - offset);
+                } catch (UncheckedIOException e) {
+                    fence(e);
+                    throw new EngineUnavailableException("Journal is fenced after a failed write: " + failure);
+                }
+                if (segmentSize - offset >= Integer.BYTES) {
+                    current.putInt(offset, END_OF_SEGMENT);
+                }
+                writePosition += segmentSize - offset;
+                current = next;
+                offset = 0;
+            }
+            current.putInt(offset + Integer.BYTES, (int) crc.getValue());
+            current.put(offset + HEADER_BYTES, payload);
+            current.putInt(offset, payload.length);
+            writePosition += total;
+            waiters.add(new Waiter(writePosition, durable));
+        }
+        return durable;
+    }
+
+    /**
+     * Reads durable records starting at {@code from} into {@code out} and returns the position
+     * just after the last record read.
+     */
+    public long read(long from, int maxRecords, List<JournalRecord> out) {
+        long position = from;
+        long limit = durablePosition;
+
+        while (position < limit && out.size() < maxRecords) {
+            long base = position - position % segmentSize;
+            int offset = (int) (position - base);
+            MappedByteBuffer segment = segments.get(base);
+            if (segment == null || segmentSize - offset < Integer.BYTES || segment.getInt(offset) == END_OF_SEGMENT) {
+                position = base + segmentSize;
+                continue;
+            }
+
+            byte[] payload = new byte[segment.getInt(offset)];
+            segment.get(offset + HEADER_BYTES, payload);
+            out.add(JournalRecord.decode(payload));
+            position += HEADER_BYTES + payload.length;
+        }
+        return position;
+    }
+
+    public long durablePosition() {
+        return durablePosition;
+    }
+
+    /**
+     * Why the journal was fenced, or null while it accepts appends.
+     */
+    public String failure() {
+        return failure;
+    }
+
+    /**
+     * Forces everything appended so far to disk and returns the new durable position.
+     */
+    public long sync() {
+        commit();
+        return durablePosition;
+    }
+
+    /**
+     * Deletes segments that lie entirely before {@code appliedPosition}. The segment being written
+     * is always kept so positions keep increasing across restarts.
+     */
+    public synchronized void release(long appliedPosition) {
+        long currentBase = writePosition - writePosition % segmentSize;
+        for (Map.Entry<Long, MappedByteBuffer> entry : segments.headMap(currentBase).entrySet()) {
+            if (entry.getKey() + segmentSize > appliedPosition) {
+                break;
+            }
+            segments.remove(entry.getKey());
+            try {
+                Files.deleteIfExists(segmentPath(entry.getKey()));
+            } catch (IOException e) {
+                logger.warn("Could not delete applied journal segment {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        running = false;
+        LockSupport.unpark(committer);
+        commit();
+    }
+
+    private void runGroupCommit() {
+        while (running) {
+            LockSupport.parkNanos(groupCommitNanos);
+            commit();
+        }
+    }
+
+    private void commit() {
+        // Appenders keep writing while we fsync; only the target position is read under their lock.
+        synchronized (commitLock) {
+            long target;
+            synchronized (this) {
+                target = writePosition;
+            }
+            if (target == durablePosition || failure != null) {
+                return;
+            }
+
+            long firstDirty = durablePosition - durablePosition % segmentSize;
+            try {
+                for (MappedByteBuffer segment : segments.tailMap(firstDirty).values()) {
+                    segment.force();
+                }
+            } catch (RuntimeException e) {
+                // A failed fsync may have dropped dirty pages, so retrying it proves nothing.
+                fence(e);
+                return;
+            }
+            durablePosition = target;
+
+            Waiter waiter;
+            while ((waiter = waiters.peek()) != null && waiter.end() <= target) {
+                waiters.poll();
+                waiter.durable().complete(null);
+            }
+        }
+    }
+
+    private void fence(RuntimeException cause) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = String.valueOf(cause.getMessage());
+            }
+        }
+        logger.error("Journal fenced at durable position {}; refusing appends until restart", durablePosition, cause);
+        Waiter waiter;
+        while ((waiter = waiters.poll()) != null) {
+            waiter.durable().completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Maps the existing segments and finds the end of the journal. A torn or corrupt record at the
+     * tail (written but never acknowledged) is zeroed out.
+     */
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).toList()) {
+                String name = file.getFileName().toString();
+                long base = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                segments.put(base, map(file));
+            }
+        }
+
+        if (segments.isEmpty()) {
+            current = mapSegment(0);
+            writePosition = 0;
+        } else {
+            writePosition = scanEnd(segments.firstKey());
+            long base = writePosition - writePosition % segmentSize;
+            current = segments.containsKey(base) ? segments.get(base) : mapSegment(base);
+        }
+        durablePosition = writePosition;
+        logger.info("Journal opened at {} with {} segment(s), end position {}", directory, segments.size(), writePosition);
+    }
+
+    private long scanEnd(long position) {
+        while (true) {
+            long base = position - position % segmentSize;
+            MappedByteBuffer segment = segments.get(base);
+            if (segment == null) {
+                return position;
+            }
+            int offset = (int) (position - base);
+            if (segmentSize - offset < Integer.BYTES) {
+                position = base + segmentSize;
+                continue;
+            }
+
+            int length = segment.getInt(offset);
+            if (length == END_OF_SEGMENT) {
+                position = base + segmentSize;
+                continue;
+            }
+            if (length == JournalRecord.PAYLOAD_BYTES && offset + HEADER_BYTES + length <= segmentSize) {
+                byte[] payload = new byte[length];
+                segment.get(offset + HEADER_BYTES, payload);
+                CRC32C crc = new CRC32C();
+                crc.update(payload);
+                if ((int) crc.getValue() == segment.getInt(offset + Integer.BYTES)) {
+                    position += HEADER_BYTES + length;
+                    continue;
+                }
+            }
+
+            if (length != 0) {
+                logger.warn("Discarding torn journal record at position {}", position);
+            }
+            truncate(position);
+            return position;
+        }
+    }
+
+    private void truncate(long position) {
+        long base = position - position % segmentSize;
+        MappedByteBuffer segment = segments.get(base);
+        byte[] zeros = new byte[4096];
+        for (long i = position - base; i < segmentSize; i += zeros.length) {
+            segment.put((int) i, zeros, 0, (int) Math.min(zeros.length, segmentSize - i));
+        }
+        segment.force();
+
+        for (Long later : segments.tailMap(base, false).keySet()) {
+            segments.remove(later);
+            try {
+                Files.deleteIfExists(segmentPath(later));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private MappedByteBuffer mapSegment(long base) {
+        try {
+            MappedByteBuffer segment = map(segmentPath(base));
+            segments.put(base, segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + base, e);
+        }
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d%s", base, SUFFIX));
+    }
+}
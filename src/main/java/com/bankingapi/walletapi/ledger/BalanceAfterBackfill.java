@@ -0,0 +1,99 @@
+package com.bankingapi.walletapi.ledger;
+
+import com.bankingapi.walletapi.hotaccount.HotAccountService;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.repository.TransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills in balance_after on postings that have none, typically history copied over by
+ * {@link com.bankingapi.walletapi.startup.LedgerMigration}. Each account is settled in its own
+ * transaction by walking its postings backwards from the current balance, with the account row
+ * locked so no posting lands in between. Accounts are spread over a small worker pool once the
+ * application is up; {@link #backfill(Long)} settles a single account on demand.
+ */
+@Component
+public class BalanceAfterBackfill {
+    private static final Logger logger = LoggerFactory.getLogger(BalanceAfterBackfill.class);
+
+    private final TransactionRepository transactionRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final HotAccountService hotAccountService;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerProperties properties;
+
+    @Autowired
+    public BalanceAfterBackfill(TransactionRepository transactionRepository,
+                                BankAccountRepository bankAccountRepository, HotAccountService hotAccountService,
+                                PlatformTransactionManager transactionManager, LedgerProperties properties) {
+        this.transactionRepository = transactionRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.hotAccountService = hotAccountService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        List<Long> accountIds = transactionRepository.findAccountIdsWithUnsettledPostings();
+        if (accountIds.isEmpty()) {
+            return;
+        }
+
+        AtomicInteger workers = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(properties.getBackfillThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "ledger-backfill-" + workers.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicLong settled = new AtomicLong();
+        AtomicInteger failed = new AtomicInteger();
+        long began = System.nanoTime();
+
+        CompletableFuture<?>[] tasks = accountIds.stream()
+                .map(accountId -> CompletableFuture.runAsync(() -> {
+                    try {
+                        settled.addAndGet(backfill(accountId));
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        logger.error("Failed to backfill balance_after for account {}", accountId, e);
+                    }
+                }, pool))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(tasks).whenComplete((ignored, error) -> {
+            pool.shutdown();
+            logger.info("Backfilled balance_after on {} postings of {} accounts in {} ms ({} failed)", settled.get(),
+                    accountIds.size(), (System.nanoTime() - began) / 1_000_000, failed.get());
+        });
+    }
+
+    /**
+     * Settles every posting of the account that has no balance_after yet. Returns the number of
+     * postings updated.
+     */
+    public int backfill(Long accountId) {
+        Integer updated = transactionTemplate.execute(status -> bankAccountRepository.findByIdForUpdate(accountId)
+                .map(account -> {
+                    // Pending slot deposits are part of the history being walked, so fold them first.
+                    hotAccountService.fold(account);
+                    bankAccountRepository.save(account);
+                    return transactionRepository.settleAll(accountId, account.getBalance().toBigDecimal());
+                })
+                .orElse(0));
+        return updated != null ? updated : 0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.bankingapi.walletapi.ledger;
+
+import com.bankingapi.walletapi.repository.BalanceCheckpointRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically writes a {@link com.bankingapi.walletapi.model.BalanceCheckpoint} per account for
+ * every closed month. A month counts as closed once the settle lag has passed since its end, so
+ * postings still being committed with a created_at inside it are included. The first run catches
+ * up from the oldest posting; afterwards each run starts from the oldest month that still had
+ * unsettled postings, so hot account deposits and backfilled history get their checkpoint once
+ * they are settled. The last few checkpointed months are rolled up again when their posting count
+ * no longer matches their checkpoints, which corrects them for postings committed even later.
+ */
+@Component
+public class BalanceCheckpointRollup {
+    private static final Logger logger = LoggerFactory.getLogger(BalanceCheckpointRollup.class);
+
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    private YearMonth pendingFrom;
+
+    @Autowired
+    public BalanceCheckpointRollup(BalanceCheckpointRepository balanceCheckpointRepository, JdbcTemplate jdbcTemplate,
+                                   PlatformTransactionManager transactionManager, LedgerProperties properties) {
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "balance-checkpoint-rollup");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = properties.getCheckpointInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::rollUpQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    private void rollUpQuietly() {
+        try {
+            rollUp();
+        } catch (RuntimeException e) {
+            logger.error("Failed to roll up balance checkpoints from {}, will retry", pendingFrom, e);
+        }
+    }
+
+    /**
+     * Corrects the checkpoints of recently closed months that received late postings, then writes
+     * the missing checkpoints of every closed month from the pending one on.
+     */
+    public synchronized void rollUp() {
+        if (pendingFrom == null) {
+            LocalDateTime earliest = jdbcTemplate.queryForObject("select min(created_at) from ledger_postings", LocalDateTime.class);
+            if (earliest == null) {
+                return;
+            }
+            pendingFrom = YearMonth.from(earliest);
+        }
+
+        // The first month that is not closed yet.
+        YearMonth open = YearMonth.from(LocalDateTime.now().minus(properties.getCheckpointSettleLag()));
+        for (YearMonth month = open.minusMonths(properties.getCheckpointRecheckMonths());
+             month.isBefore(pendingFrom); month = month.plusMonths(1)) {
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            if (balanceCheckpointRepository.countPostings(start, end)
+                    != balanceCheckpointRepository.countCheckpointedPostings(end)) {
+                logger.info("Postings of {} changed since its checkpoints were written, rolling it up again", month);
+                rollUpMonth(month);
+            }
+        }
+
+        YearMonth nextPending = null;
+        for (YearMonth month = pendingFrom; month.isBefore(open); month = month.plusMonths(1)) {
+            if (rollUpMonth(month) > 0 && nextPending == null) {
+                nextPending = month;
+            }
+        }
+        if (pendingFrom.isBefore(open)) {
+            pendingFrom = nextPending != null ? nextPending : open;
+        }
+    }
+
+    /**
+     * Writes or corrects the month's checkpoints and returns how many of its accounts are still
+     * unsettled.
+     */
+    private long rollUpMonth(YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        Integer written = transactionTemplate.execute(status -> balanceCheckpointRepository.rollUp(start, end));
+        long unsettled = balanceCheckpointRepository.countUnsettledAccounts(start, end);
+        if (written != null && written > 0) {
+            logger.info("Wrote {} balance checkpoints for {} ({} accounts still unsettled)", written, month, unsettled);
+        }
+        return unsettled;
+    }
+}
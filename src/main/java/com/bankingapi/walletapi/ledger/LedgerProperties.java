@@ -0,0 +1,25 @@
+package com.bankingapi.walletapi.ledger;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.ledger")
+public class LedgerProperties {
+
+    private int backfillThreads = 4;
+
+    private Duration checkpointInterval = Duration.ofHours(1);
+
+    // How long after a month ends its postings may still be committing (open transactions, flusher, journal)
+    private Duration checkpointSettleLag = Duration.ofHours(1);
+
+    // Closed months whose checkpoints are compared against their postings on every run
+    private int checkpointRecheckMonths = 2;
+
+    private int partitionMonthsAhead = 3;
+
+    private Duration partitionCheckInterval = Duration.ofHours(6);
+}
@@ -0,0 +1,130 @@
+package com.bankingapi.walletapi.ledger;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Monthly range partitions of {@code ledger_postings} on created_at. A background job keeps the
+ * partitions of the next few months created ahead of time, so postings only land in the default
+ * partition when their month has no partition yet. Indexes are declared on the parent table and
+ * PostgreSQL creates them locally on every partition. Partition changes take a transaction-scoped
+ * advisory lock, so several instances starting or running the job at once do not collide.
+ */
+@Component
+public class PostingPartitions {
+    private static final Logger logger = LoggerFactory.getLogger(PostingPartitions.class);
+
+    public static final String TABLE = "ledger_postings";
+    public static final String DEFAULT_PARTITION = TABLE + "_default";
+
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerProperties properties;
+    private final ScheduledExecutorService scheduler;
+
+    @Autowired
+    public PostingPartitions(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             LedgerProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "posting-partitions");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        long interval = properties.getPartitionCheckInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::createAheadQuietly, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdown();
+    }
+
+    public static String partitionName(YearMonth month) {
+        return TABLE + "_p" + month.format(SUFFIX);
+    }
+
+    public boolean isPartitioned() {
+        Integer partitioned = jdbcTemplate.queryForObject(
+                "select count(*) from pg_partitioned_table where partrelid = to_regclass(?)", Integer.class, TABLE);
+        return partitioned != null && partitioned > 0;
+    }
+
+    /**
+     * Takes the lock that serializes partition changes of {@link #TABLE} across instances until
+     * the current transaction ends.
+     */
+    public void lock() {
+        jdbcTemplate.execute("select pg_advisory_xact_lock(hashtext('" + TABLE + "'))");
+    }
+
+    /**
+     * Creates the missing partitions of every month from {@code from} through {@code to}. Rows of
+     * such a month that already landed in the default partition are moved into the new one.
+     */
+    public void create(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            String partition = partitionName(month);
+            if (jdbcTemplate.queryForObject("select to_regclass(?)::text", String.class, partition) != null) {
+                continue;
+            }
+            LocalDateTime start = month.atDay(1).atStartOfDay();
+            LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+            Integer moved = transactionTemplate.execute(status -> {
+                // Another instance may have created it since the check above.
+                lock();
+                if (jdbcTemplate.queryForObject("select to_regclass(?)::text", String.class, partition) != null) {
+                    return null;
+                }
+                jdbcTemplate.execute("create table " + partition + " (like " + TABLE + " including defaults)");
+                int rows = jdbcTemplate.update("with moved as (delete from " + DEFAULT_PARTITION
+                        + " where created_at >= ? and created_at < ? returning *) insert into " + partition
+                        + " select * from moved", start, end);
+                // Attaching builds the partition's local copies of the parent's indexes and keys.
+                jdbcTemplate.execute("alter table " + TABLE + " attach partition " + partition
+                        + " for values from ('" + month.atDay(1) + "') to ('" + month.plusMonths(1).atDay(1) + "')");
+                return rows;
+            });
+            if (moved == null) {
+                continue;
+            }
+            logger.info("Created partition {}{}", partition, moved > 0
+                    ? ", moved " + moved + " postings out of " + DEFAULT_PARTITION : "");
+        }
+    }
+
+    private void createAheadQuietly() {
+        try {
+            if (isPartitioned()) {
+                YearMonth current = YearMonth.now();
+                create(current, current.plusMonths(properties.getPartitionMonthsAhead()));
+            }
+        } catch (DataAccessException e) {
+            logger.error("Failed to create ledger posting partitions ahead, will retry", e);
+        }
+    }
+}
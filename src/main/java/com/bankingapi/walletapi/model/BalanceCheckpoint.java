@@ -0,0 +1,50 @@
+package com.bankingapi.walletapi.model;
+
+import com.bankingapi.walletapi.money.Money;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * An account's balance at the end of a calendar month together with the month's credit and debit
+ * totals. {@code periodEnd} is the first instant of the following month, so the balance covers
+ * every posting created strictly before it. Written by the monthly roll-up, which rewrites it if
+ * postings of the month commit after it was written.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "balance_checkpoints", uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "period_end"}))
+public class BalanceCheckpoint {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_checkpoints_seq")
+    @SequenceGenerator(name = "balance_checkpoints_seq", sequenceName = "balance_checkpoints_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BankAccount account;
+
+    @Column(nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Column(nullable = false)
+    private Money balance;
+
+    @Column(nullable = false)
+    private Money credits;
+
+    @Column(nullable = false)
+    private Money debits;
+
+    @Column(nullable = false)
+    private long postingCount;
+}
@@ -0,0 +1,38 @@
+package com.bankingapi.walletapi.model;
+
+import com.bankingapi.walletapi.money.Money;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * One of the sub-balances of a hot account. Credits land on a random slot so they do not
+ * serialize on the account row; the account's real balance is its own balance plus its slots.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "balance_slots", uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "slot"}))
+public class BalanceSlot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_slots_seq")
+    @SequenceGenerator(name = "balance_slots_seq", sequenceName = "balance_slots_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "account_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private BankAccount account;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @NotNull
+    private Money balance;
+}
@@ -1,23 +1,27 @@
 package com.bankingapi.walletapi.model;
 
+import com.bankingapi.walletapi.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@BatchSize(size = 50)
 @Table(name = "bank_accounts")
 public class BankAccount {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_accounts_seq")
+    @SequenceGenerator(name = "bank_accounts_seq", sequenceName = "bank_accounts_seq", allocationSize = 50)
     private Long id;
 
     @NotNull(message= "Account number is required")
@@ -25,7 +29,7 @@ public class BankAccount {
     private String accountNumber;
 
     @NotNull(message= "Balance is required")
-    private BigDecimal balance;
+    private Money balance;
 
     private String accountType;
 
@@ -33,7 +37,17 @@ public class BankAccount {
 
     private boolean frozen = false;
 
-    @ManyToOne
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int hotSlots;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
+    // Lazy: account responses only need user_id, which the proxy carries without a select.
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 }
@@ -0,0 +1,41 @@
+package com.bankingapi.walletapi.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.BatchSize;
+
+import java.time.LocalDateTime;
+
+/**
+ * Header of one money movement. Its postings ({@link Transaction}) carry the per-account side;
+ * a deposit or withdrawal has one posting, a transfer a debit and a credit.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@BatchSize(size = 50)
+@Table(name = "ledger_entries")
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entries_seq")
+    @SequenceGenerator(name = "ledger_entries_seq", sequenceName = "ledger_entries_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Only stored when it differs from the standard wording, see LedgerService.describe.
+    private String description;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "sender_account_id")
+    private BankAccount senderAccount;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "receiver_account_id")
+    private BankAccount receiverAccount;
+}
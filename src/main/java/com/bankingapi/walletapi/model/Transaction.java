@@ -1,41 +1,60 @@
 package com.bankingapi.walletapi.model;
 
 import com.bankingapi.walletapi.enums.TransactionType;
+import com.bankingapi.walletapi.money.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
-import java.time.LocalDateTime;
-import java.math.BigDecimal;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
+/**
+ * One side of a {@link LedgerEntry}: the signed change to a single account (negative for a
+ * debit) and the account's balance right after it. The entry's timestamp is repeated here so an
+ * account's history can be read in time order from one index.
+ *
+ * <p>Its associations are lazy; reads that render the entry's parties use the
+ * {@code Transaction.withParties} graph, and the rest fall back to batch loading.
+ */
 @Entity
 @NoArgsConstructor
 @AllArgsConstructor
 @Data
-@Table(name = "transactions")
+@NamedEntityGraph(name = "Transaction.withParties",
+        attributeNodes = @NamedAttributeNode(value = "entry", subgraph = "parties"),
+        subgraphs = @NamedSubgraph(name = "parties",
+                attributeNodes = {@NamedAttributeNode("senderAccount"), @NamedAttributeNode("receiverAccount")}))
+@Table(name = "ledger_postings", indexes = {
+        @Index(name = "idx_ledger_postings_account_time", columnList = "account_id, created_at, id"),
+        @Index(name = "idx_ledger_postings_time", columnList = "created_at, id")
+})
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
 
-    @NotNull(message = "Amount is required")
-    private BigDecimal amount;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false, cascade = CascadeType.PERSIST)
+    @JoinColumn(name = "entry_id", nullable = false)
+    private LedgerEntry entry;
 
-    private LocalDateTime createdAt;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "account_id", nullable = false)
+    private BankAccount account;
 
-    private String description;
-
-    @ManyToOne
-    @JoinColumn(name = "sender_account_id")
-    private BankAccount senderAccount;
-
-    @ManyToOne
-    @JoinColumn(name = "receiver_account_id")
-    private BankAccount receiverAccount;
+    // The partition key of ledger_postings, see PostingPartitions.
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
 
-    @Enumerated(EnumType.STRING)
-    @Column(nullable= false)
-    private TransactionType transactionType;
+    @NotNull(message = "Amount is required")
+    private Money amount;
 
+    // Null until settled: hot account deposits get it when their slots are folded, migrated rows
+    // from BalanceAfterBackfill.
+    private Money balanceAfter;
 
+    public TransactionType getTransactionType() {
+        return amount.signum() < 0 ? TransactionType.DEBIT : TransactionType.CREDIT;
+    }
 }
@@ -0,0 +1,35 @@
+package com.bankingapi.walletapi.money;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Reads JSON numbers (or numeric strings) into {@link Money}. Amounts with more than two decimal
+ * places are rejected rather than rounded.
+ */
+public class MoneyJsonDeserializer extends StdDeserializer<Money> {
+
+    public MoneyJsonDeserializer() {
+        super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String text = p.getText();
+        try {
+            return switch (p.currentToken()) {
+                case VALUE_NUMBER_INT -> Money.ofCents(Math.multiplyExact(p.getLongValue(), 100));
+                case VALUE_NUMBER_FLOAT -> Money.of(p.getDecimalValue());
+                case VALUE_STRING -> Money.of(new BigDecimal(text.trim()));
+                default -> (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            };
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw InvalidFormatException.from(p, "Not a valid amount with at most two decimal places", text, Money.class);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.bankingapi.walletapi.pagination;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Turns cursors into opaque strings and back. The payload is signed with HMAC-SHA256 so a client
+ * cannot forge a position; a tampered or foreign cursor is rejected as a bad request.
+ */
+@Component
+public class CursorCodec {
+    private static final Logger logger = LoggerFactory.getLogger(CursorCodec.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 16;
+
+    private final SecretKeySpec key;
+
+    @Autowired
+    public CursorCodec(PaginationProperties properties) {
+        byte[] secret;
+        if (properties.getCursorSecret() != null && !properties.getCursorSecret().isBlank()) {
+            secret = properties.getCursorSecret().getBytes(StandardCharsets.UTF_8);
+        } else {
+            logger.warn("wallet.pagination.cursor-secret is not set, using a random key; cursors will not survive a restart");
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        }
+        this.key = new SecretKeySpec(secret, ALGORITHM);
+    }
+
+    public String encode(TransactionCursor cursor) {
+        return sign(cursor.payload());
+    }
+
+    public TransactionCursor decode(String cursor) {
+        return TransactionCursor.fromPayload(verify(cursor));
+    }
+
+    /**
+     * Signs any position payload, e.g. an export's resume point, the same way as a cursor.
+     */
+    public String sign(String payload) {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(bytes) + "." + encoder.encodeToString(mac(bytes));
+    }
+
+    /**
+     * @return the payload of a string made by {@link #sign(String)}
+     * @throws IllegalArgumentException when it was not signed with this key or was altered
+     */
+    public String verify(String signed) {
+        int dot = signed.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        byte[] payload;
+        byte[] signature;
+        try {
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            payload = decoder.decode(signed.substring(0, dot));
+            signature = decoder.decode(signed.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!MessageDigest.isEqual(mac(payload), signature)) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return Arrays.copyOf(mac.doFinal(payload), SIGNATURE_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to sign cursor", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.bankingapi.walletapi.pagination;
+
+import java.util.List;
+
+/**
+ * One page of a keyset listing; {@code nextCursor} is null on the last page and {@code total}
+ * when no count was asked for.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, Long total) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    public static final String ESTIMATED_TOTAL_COUNT_HEADER = "X-Estimated-Total-Count";
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    public static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIMIT);
+        }
+        return limit;
+    }
+}
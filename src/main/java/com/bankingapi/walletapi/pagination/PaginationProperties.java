@@ -0,0 +1,15 @@
+package com.bankingapi.walletapi.pagination;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.pagination")
+public class PaginationProperties {
+
+    /**
+     * Key cursors are signed with. Must be shared by every instance behind the load balancer;
+     * when unset a random key is used and cursors do not survive a restart.
+     */
+    private String cursorSecret;
+}
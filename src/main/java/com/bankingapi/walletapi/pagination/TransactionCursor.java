@@ -0,0 +1,33 @@
+package com.bankingapi.walletapi.pagination;
+
+import com.bankingapi.walletapi.repository.TransactionRow;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Position in a (created_at, id) ordered listing. The next page starts strictly after it, so
+ * paging never rescans the rows already returned. Handed to clients only through
+ * {@link CursorCodec}.
+ */
+public record TransactionCursor(LocalDateTime createdAt, Long id) {
+
+    // A posting is created with its entry, so the row's entry time is the posting's created_at.
+    public static TransactionCursor of(TransactionRow row) {
+        return new TransactionCursor(row.createdAt(), row.id());
+    }
+
+    String payload() {
+        return createdAt + "|" + id;
+    }
+
+    static TransactionCursor fromPayload(String payload) {
+        try {
+            int separator = payload.indexOf('|');
+            return new TransactionCursor(LocalDateTime.parse(payload.substring(0, separator)),
+                    Long.parseLong(payload.substring(separator + 1)));
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.bankingapi.walletapi.repository;
+
+import com.bankingapi.walletapi.model.BalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BalanceCheckpointRepository extends JpaRepository<BalanceCheckpoint, Long> {
+
+    Optional<BalanceCheckpoint> findFirstByAccount_IdAndPeriodEndLessThanEqualOrderByPeriodEndDesc(Long accountId, LocalDateTime instant);
+
+    Optional<BalanceCheckpoint> findByAccount_IdAndPeriodEnd(Long accountId, LocalDateTime periodEnd);
+
+    /**
+     * Writes a checkpoint at {@code end} for every account with postings in [start, end), or
+     * rewrites an existing one when postings committed late changed its figures. Accounts with a
+     * posting still missing its balance_after are skipped and picked up by a later run.
+     */
+    @Modifying
+    @Query(value = """
+            insert into balance_checkpoints (id, account_id, period_end, balance, credits, debits, posting_count)
+            select nextval('balance_checkpoints_seq'), m.account_id, :end, m.balance, m.credits, m.debits, m.posting_count
+            from (select p.account_id,
+                         (array_agg(p.balance_after order by p.created_at desc, p.id desc))[1] as balance,
+                         coalesce(sum(p.amount) filter (where p.amount > 0), 0) as credits,
+                         coalesce(-sum(p.amount) filter (where p.amount < 0), 0) as debits,
+                         count(*) as posting_count
+                  from ledger_postings p
+                  where p.created_at >= :start and p.created_at < :end
+                  group by p.account_id
+                  having bool_and(p.balance_after is not null)) m
+            on conflict (account_id, period_end) do update
+                set balance = excluded.balance, credits = excluded.credits, debits = excluded.debits,
+                    posting_count = excluded.posting_count
+                where (balance_checkpoints.balance, balance_checkpoints.credits, balance_checkpoints.debits,
+                       balance_checkpoints.posting_count)
+                      is distinct from (excluded.balance, excluded.credits, excluded.debits, excluded.posting_count)
+            """, nativeQuery = true)
+    int rollUp(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    /**
+     * Balance just before {@code instant} of each of the accounts that has a checkpoint at or
+     * before it, as (account_id, balance) rows: the latest such checkpoint plus the postings since.
+     */
+    @Query(value = """
+            select a.id, c.balance + coalesce((select sum(p.amount) from ledger_postings p
+                                               where p.account_id = a.id and p.created_at >= c.period_end
+                                                 and p.created_at < :instant), 0)
+            from bank_accounts a
+            join lateral (select b.balance, b.period_end from balance_checkpoints b
+                          where b.account_id = a.id and b.period_end <= :instant
+                          order by b.period_end desc limit 1) c on true
+            where a.id in :accountIds
+            """, nativeQuery = true)
+    List<Object[]> findBalancesBefore(@Param("accountIds") Collection<Long> accountIds, @Param("instant") LocalDateTime instant);
+
+    @Query(value = "select count(distinct account_id) from ledger_postings "
+            + "where created_at >= :start and created_at < :end and balance_after is null", nativeQuery = true)
+    long countUnsettledAccounts(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query(value = "select count(*) from ledger_postings where created_at >= :start and created_at < :end", nativeQuery = true)
+    long countPostings(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
+
+    @Query(value = "select coalesce(sum(posting_count), 0) from balance_checkpoints where period_end = :end", nativeQuery = true)
+    long countCheckpointedPostings(@Param("end") LocalDateTime end);
+}
@@ -0,0 +1,26 @@
+package com.bankingapi.walletapi.repository;
+
+import com.bankingapi.walletapi.model.BalanceSlot;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface BalanceSlotRepository extends JpaRepository<BalanceSlot, Long> {
+
+    List<BalanceSlot> findByAccount_Id(Long accountId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from BalanceSlot s where s.account.id = :accountId order by s.slot")
+    List<BalanceSlot> findByAccountIdForUpdate(@Param("accountId") Long accountId);
+
+    @Modifying
+    @Query(value = "update balance_slots set balance = balance + :amount where account_id = :accountId and slot = :slot",
+            nativeQuery = true)
+    int credit(@Param("accountId") Long accountId, @Param("slot") int slot, @Param("amount") BigDecimal amount);
+}
@@ -1,8 +1,52 @@
 package com.bankingapi.walletapi.repository;
 
 import com.bankingapi.walletapi.model.BankAccount;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
+    String BALANCE_WITH_SLOTS =
+            "a.balance + coalesce((select sum(s.balance) from balance_slots s where s.account_id = a.id), 0)";
+
     boolean existsByAccountNumber(String accountNumber);
+
+    /**
+     * Every account as (id, account_number, account_type, user_id, balance, created_at, frozen)
+     * rows. The balance includes the unfolded hot slots and is read in the same statement as the
+     * account row, so a concurrent fold is seen whole or not at all.
+     */
+    @Query(value = "select a.id, a.account_number, a.account_type, a.user_id, " + BALANCE_WITH_SLOTS
+            + ", a.created_at, a.frozen from bank_accounts a", nativeQuery = true)
+    List<Object[]> findAllResponseRows();
+
+    /**
+     * Balance of the account plus its unfolded hot slots, in one statement.
+     */
+    @Query(value = "select " + BALANCE_WITH_SLOTS + " from bank_accounts a where a.id = :id", nativeQuery = true)
+    BigDecimal findBalanceWithSlots(@Param("id") Long id);
+
+    @Query(value = "select id from bank_accounts where id > :after and created_at < :before order by id limit :limit",
+            nativeQuery = true)
+    List<Long> findIdPageCreatedBefore(@Param("after") long after, @Param("before") LocalDateTime before,
+                                       @Param("limit") int limit);
+
+    @Query("select a.id from BankAccount a where a.hotSlots > 0")
+    List<Long> findHotAccountIds();
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from BankAccount a where a.id = :id")
+    Optional<BankAccount> findByIdForUpdate(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select a from BankAccount a where a.id in :ids order by a.id")
+    List<BankAccount> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
 }
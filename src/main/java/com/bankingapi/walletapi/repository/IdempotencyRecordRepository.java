@@ -0,0 +1,36 @@
+package com.bankingapi.walletapi.repository;
+
+import com.bankingapi.walletapi.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, request_hash, created_at) values (:key, :requestHash, :createdAt) "
+            + "on conflict (idempotency_key) do nothing", nativeQuery = true)
+    int claim(@Param("key") String key, @Param("requestHash") String requestHash, @Param("createdAt") LocalDateTime createdAt);
+
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, request_hash, response_body, created_at, completed_at) "
+            + "values (:key, :requestHash, :responseBody, :completedAt, :completedAt) on conflict (idempotency_key) do nothing",
+            nativeQuery = true)
+    int insertCompleted(@Param("key") String key, @Param("requestHash") String requestHash,
+                        @Param("responseBody") String responseBody, @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query("update IdempotencyRecord r set r.responseBody = :responseBody, r.completedAt = :completedAt where r.key = :key")
+    int complete(@Param("key") String key, @Param("responseBody") String responseBody, @Param("completedAt") LocalDateTime completedAt);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.key = :key and r.responseBody is null and r.createdAt < :cutoff")
+    int releaseClaim(@Param("key") String key, @Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,18 +1,130 @@
 package com.bankingapi.walletapi.repository;
 
 import com.bankingapi.walletapi.model.Transaction;
+import com.bankingapi.walletapi.money.Money;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
 
-    List<Transaction> findBySenderAccount_Id(Long accountId);
-    List<Transaction> findByReceiverAccount_Id(Long accountId);
-    List<Transaction> findByCreatedAtBetween(LocalDateTime fromDate, LocalDateTime toDate);
-    List<Transaction> findByAmountBetween(BigDecimal minAmount, BigDecimal maxAmount);
+    String ROW_SELECT = "select new com.bankingapi.walletapi.repository.TransactionRow(t.id, t.account.id, t.amount, "
+            + "e.createdAt, s.id, r.id, s.accountNumber, r.accountNumber, e.description) "
+            + "from Transaction t join t.entry e left join e.senderAccount s left join e.receiverAccount r ";
+
+    @Query(value = ROW_SELECT, countQuery = "select count(t) from Transaction t")
+    Page<TransactionRow> findRows(Pageable pageable);
+
+    // Bounded on the posting's own created_at, the partition key, so only the months in range are scanned.
+    @Query(ROW_SELECT + "where t.createdAt between :from and :to")
+    List<TransactionRow> findRowsByCreatedAtBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query(ROW_SELECT + "where t.amount between :min and :max or t.amount between :negatedMax and :negatedMin")
+    List<TransactionRow> findRowsBySignedAmountBetween(@Param("min") Money min, @Param("max") Money max,
+                                                       @Param("negatedMax") Money negatedMax,
+                                                       @Param("negatedMin") Money negatedMin);
+
+    /**
+     * Rows of the postings whose absolute amount lies between the bounds, debits and credits alike.
+     */
+    default List<TransactionRow> findRowsByAmountBetween(Money minAmount, Money maxAmount) {
+        return findRowsBySignedAmountBetween(minAmount, maxAmount, maxAmount.negate(), minAmount.negate());
+    }
+
+    @EntityGraph("Transaction.withParties")
+    Optional<Transaction> findWithPartiesById(Long id);
+
+    @EntityGraph("Transaction.withParties")
+    List<Transaction> findByAccount_IdOrderByCreatedAtAscIdAsc(Long accountId);
+
+    @Query(ROW_SELECT + "order by t.createdAt, t.id")
+    List<TransactionRow> findPage(Pageable pageable);
+
+    // The plain created_at bound is implied by the row comparison; it lets the planner prune partitions.
+    @Query(ROW_SELECT + "where t.createdAt >= :createdAt and (t.createdAt, t.id) > (:createdAt, :id) "
+            + "order by t.createdAt, t.id")
+    List<TransactionRow> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // A partitioned parent is never analyzed and keeps reltuples at -1, so its partitions' estimates are summed.
+    @Query(value = "select coalesce(sum(greatest(c.reltuples, 0)), 0)::bigint from pg_class c "
+            + "where (c.oid = 'ledger_postings'::regclass and c.relkind = 'r') "
+            + "or c.oid in (select i.inhrelid from pg_inherits i where i.inhparent = 'ledger_postings'::regclass)",
+            nativeQuery = true)
+    long estimateCount();
+
+    @Query(ROW_SELECT + "where t.account.id = :accountId order by t.createdAt, t.id")
+    List<TransactionRow> findAccountPage(@Param("accountId") Long accountId, Pageable pageable);
+
+    // Row-value comparison so the (account_id, created_at, id) index seeks straight to the cursor.
+    @Query(ROW_SELECT + "where t.account.id = :accountId and t.createdAt >= :createdAt "
+            + "and (t.createdAt, t.id) > (:createdAt, :id) order by t.createdAt, t.id")
+    List<TransactionRow> findAccountPageAfter(@Param("accountId") Long accountId, @Param("createdAt") LocalDateTime createdAt,
+                                              @Param("id") Long id, Pageable pageable);
+
+    @EntityGraph("Transaction.withParties")
+    @Query("select t from Transaction t where t.account.id = :accountId and t.createdAt >= :from and t.createdAt < :to "
+            + "order by t.createdAt, t.id")
+    List<Transaction> findAccountHistory(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    @Query(value = "select coalesce(sum(amount), 0) from ledger_postings "
+            + "where account_id = :accountId and created_at >= :from and created_at < :to", nativeQuery = true)
+    BigDecimal sumAmountBetween(@Param("accountId") Long accountId, @Param("from") LocalDateTime from,
+                                @Param("to") LocalDateTime to);
+
+    @EntityGraph("Transaction.withParties")
+    List<Transaction> findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAscIdAsc(Long accountId, LocalDateTime from,
+                                                                               LocalDateTime to);
+
+    Optional<Transaction> findFirstByAccount_IdAndCreatedAtLessThanOrderByCreatedAtDescIdDesc(Long accountId, LocalDateTime before);
+
+    Optional<Transaction> findFirstByAccount_IdAndCreatedAtGreaterThanEqualOrderByCreatedAtAscIdAsc(Long accountId, LocalDateTime from);
+
+    @Query(value = "select distinct account_id from ledger_postings where balance_after is null", nativeQuery = true)
+    List<Long> findAccountIdsWithUnsettledPostings();
+
+    /**
+     * Settles the unsettled postings that come after the account's last settled one, walking
+     * back from {@code balance}. Cheap after a fold, when only the folded deposits are open.
+     */
+    @Modifying
+    @Query(value = """
+            update ledger_postings p set balance_after = tail.balance_after
+            from (select u.id, :balance - coalesce(sum(u.amount) over (order by u.created_at desc, u.id desc
+                          rows between unbounded preceding and 1 preceding), 0) as balance_after
+                  from ledger_postings u
+                  where u.account_id = :accountId and u.balance_after is null
+                    and not exists (select 1 from ledger_postings s
+                                    where s.account_id = u.account_id and s.balance_after is not null
+                                      and (s.created_at, s.id) > (u.created_at, u.id))) tail
+            where p.id = tail.id
+            """, nativeQuery = true)
+    int settleTail(@Param("accountId") Long accountId, @Param("balance") BigDecimal balance);
+
+    /**
+     * Settles every unsettled posting of the account by walking its whole history back from
+     * {@code balance}, which must be the balance after its latest posting.
+     */
+    @Modifying
+    @Query(value = """
+            update ledger_postings p set balance_after = walk.balance_after
+            from (select u.id, u.balance_after is null as unsettled,
+                         :balance - coalesce(sum(u.amount) over (order by u.created_at desc, u.id desc
+                          rows between unbounded preceding and 1 preceding), 0) as balance_after
+                  from ledger_postings u
+                  where u.account_id = :accountId) walk
+            where p.id = walk.id and walk.unsettled
+            """, nativeQuery = true)
+    int settleAll(@Param("accountId") Long accountId, @Param("balance") BigDecimal balance);
 }
@@ -0,0 +1,13 @@
+package com.bankingapi.walletapi.repository;
+
+import com.bankingapi.walletapi.money.Money;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-side projection of a posting and its entry: the FK ids plus the two account numbers the
+ * standard description needs, so a list read is one joined query with no entities hydrated.
+ */
+public record TransactionRow(Long id, Long accountId, Money amount, LocalDateTime createdAt, Long senderId,
+                             Long receiverId, String senderNumber, String receiverNumber, String description) {
+}
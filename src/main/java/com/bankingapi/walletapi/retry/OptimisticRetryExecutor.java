@@ -0,0 +1,72 @@
+package com.bankingapi.walletapi.retry;
+
+import com.bankingapi.walletapi.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read-modify-write on an account in its own transaction and replays it when the
+ * {@code @Version} check fails, sleeping a jittered exponential backoff between attempts.
+ * Meters are tagged by operation only, since a tag per account would grow without bound; which
+ * accounts conflict is logged instead.
+ */
+@Component
+public class OptimisticRetryExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetryExecutor.class);
+
+    private final TransactionTemplate transactionTemplate;
+    private final RetryProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public OptimisticRetryExecutor(PlatformTransactionManager transactionManager, RetryProperties properties, MeterRegistry meterRegistry) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T execute(String operation, Long accountId, Supplier<T> action) {
+        meterRegistry.counter("wallet.account.operations", "operation", operation).increment();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> action.get());
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter("wallet.account.conflicts", "operation", operation).increment();
+
+                if (attempt >= properties.getMaxAttempts()) {
+                    meterRegistry.counter("wallet.account.retries.exhausted", "operation", operation).increment();
+                    logger.warn("Giving up on {} for account {} after {} conflicting attempts", operation, accountId, attempt);
+                    throw new ConcurrentUpdateException("Account " + accountId + " is being updated concurrently. Please retry.");
+                }
+
+                meterRegistry.counter("wallet.account.retries", "operation", operation).increment();
+                logger.info("Version conflict on {} for account {}, attempt {}", operation, accountId, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    private void backoff(int attempt) {
+        long initial = properties.getInitialBackoff().toMillis();
+        long cap = properties.getMaxBackoff().toMillis();
+        long ceiling = Math.min(cap, initial << Math.min(attempt - 1, 20));
+        long sleep = ThreadLocalRandom.current().nextLong(ceiling + 1);
+
+        try {
+            Thread.sleep(sleep);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConcurrentUpdateException("Interrupted while retrying account update.");
+        }
+    }
+}
@@ -1,16 +1,25 @@
 package com.bankingapi.walletapi.security;
 
+import com.bankingapi.walletapi.money.Money;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Components;
 import io.swagger.v3.oas.models.security.SecurityRequirement;
 import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.springdoc.core.utils.SpringDocUtils;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.math.BigDecimal;
+
 @Configuration
 public class OpenAPIConfig {
     private static final String BEARER = "bearerAuth";
 
+    static {
+        // Money is (de)serialized as a plain JSON number.
+        SpringDocUtils.getConfig().replaceWithClass(Money.class, BigDecimal.class);
+    }
+
     @Bean
     public OpenAPI customOpenAPI() {
         return new OpenAPI()
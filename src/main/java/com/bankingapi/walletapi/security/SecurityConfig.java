@@ -1,7 +1,12 @@
 package com.bankingapi.walletapi.security;
 
+import com.bankingapi.walletapi.idempotency.IdempotencyService;
+import com.bankingapi.walletapi.export.ParallelCsvExporter;
+import com.bankingapi.walletapi.pagination.CursorPage;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -49,6 +54,8 @@ public class SecurityConfig {
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                        // The original request was already authorized before its work went to a bulkhead.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers(
                              "/api/auth/login",
                              "/api/auth/login/",
@@ -73,7 +80,11 @@ public class SecurityConfig {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOrigins(Arrays.asList("http://localhost"));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", IdempotencyService.HEADER,
+                HttpHeaders.IF_NONE_MATCH));
+        configuration.setExposedHeaders(Arrays.asList(HttpHeaders.ETAG, HttpHeaders.RETRY_AFTER, HttpHeaders.CONTENT_DISPOSITION,
+                CursorPage.NEXT_CURSOR_HEADER, CursorPage.TOTAL_COUNT_HEADER, CursorPage.ESTIMATED_TOTAL_COUNT_HEADER,
+                ParallelCsvExporter.PLAN_HEADER));
         configuration.setAllowCredentials(true);
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", configuration);
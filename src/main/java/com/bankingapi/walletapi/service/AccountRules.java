@@ -0,0 +1,81 @@
+package com.bankingapi.walletapi.service;
+
+import com.bankingapi.walletapi.enums.TransferStatus;
+import com.bankingapi.walletapi.exception.AccountFrozenException;
+import com.bankingapi.walletapi.exception.InsufficientFundsException;
+import com.bankingapi.walletapi.money.Money;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Balance rules shared by the JPA money paths and the in-memory balance engine. The checks only
+ * compare {@link Money} values, so they allocate nothing.
+ */
+public final class AccountRules {
+    private static final Logger logger = LoggerFactory.getLogger(AccountRules.class);
+
+    public static final Money MIN_BALANCE = Money.ofCents(5_000);
+    public static final Money MAX_OVERDRAFT = Money.ofCents(-10_000);
+
+    private AccountRules() {
+    }
+
+    public static void checkDeposit(boolean frozen) {
+        if (frozen) {
+            throw new AccountFrozenException("Account is frozen. Deposit denied.");
+        }
+    }
+
+    /**
+     * Validates a withdrawal and returns the balance the account would be left with.
+     */
+    public static Money checkWithdrawal(Long accountId, Money balance, boolean frozen, Money amount) {
+        if (balance.isLessThan(amount)) {
+            throw new InsufficientFundsException("Insufficient funds");
+        }
+
+        if (frozen) {
+            throw new AccountFrozenException("Account is frozen. Withdrawal denied.");
+        }
+
+        Money projectedBalance = balance.minus(amount);
+
+        if (projectedBalance.isLessThan(MAX_OVERDRAFT)) {
+            throw new InsufficientFundsException("Overdraft limit exceeded. Withdrawal denied.");
+        }
+
+        if (projectedBalance.isLessThan(MIN_BALANCE) && projectedBalance.signum() >= 0) {
+            logger.warn("Balance alert for account {}", accountId);
+        }
+        return projectedBalance;
+    }
+
+    public static boolean shouldAutoFreeze(Money projectedBalance) {
+        return projectedBalance.signum() < 0 && projectedBalance.compareTo(MAX_OVERDRAFT) <= 0;
+    }
+
+    public static void checkTransfer(Money senderBalance, Money amount) {
+        if (!coversTransfer(senderBalance, amount)) {
+            throw new InsufficientFundsException("Insufficient funds in sender account.");
+        }
+    }
+
+    /**
+     * Outcome of a transfer between two existing accounts, for callers that report rejections
+     * per item instead of throwing.
+     */
+    public static TransferStatus transferStatus(boolean senderFrozen, boolean receiverFrozen, Money senderBalance,
+                                                Money amount) {
+        if (senderFrozen || receiverFrozen) {
+            return TransferStatus.FROZEN;
+        }
+        if (!coversTransfer(senderBalance, amount)) {
+            return TransferStatus.INSUFFICIENT_FUNDS;
+        }
+        return TransferStatus.OK;
+    }
+
+    private static boolean coversTransfer(Money senderBalance, Money amount) {
+        return !senderBalance.isLessThan(amount);
+    }
+}
@@ -0,0 +1,109 @@
+package com.bankingapi.walletapi.service;
+
+import com.bankingapi.walletapi.exception.ResourceNotFoundException;
+import com.bankingapi.walletapi.ledger.BalanceAfterBackfill;
+import com.bankingapi.walletapi.model.BalanceCheckpoint;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.Transaction;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BalanceCheckpointRepository;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Historical balances without replaying an account's history: the nearest monthly
+ * {@link BalanceCheckpoint} plus the postings since it, or, for an account without checkpoints,
+ * the balance_after of the nearest posting.
+ */
+@Service
+public class BalanceHistoryService {
+
+    private final TransactionRepository transactionRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceCheckpointRepository balanceCheckpointRepository;
+    private final BalanceAfterBackfill balanceAfterBackfill;
+
+    @Autowired
+    public BalanceHistoryService(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository,
+                                 BalanceCheckpointRepository balanceCheckpointRepository,
+                                 BalanceAfterBackfill balanceAfterBackfill) {
+        this.transactionRepository = transactionRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceCheckpointRepository = balanceCheckpointRepository;
+        this.balanceAfterBackfill = balanceAfterBackfill;
+    }
+
+    /**
+     * Balance of the account just before the given instant, i.e. after every posting created
+     * strictly earlier.
+     */
+    public Money balanceBefore(Long accountId, LocalDateTime instant) {
+        BankAccount account = bankAccountRepository.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Bank account with id " + accountId + " not found"));
+        if (account.getCreatedAt() != null && !account.getCreatedAt().isBefore(instant)) {
+            return Money.ZERO;
+        }
+
+        // At most the postings of the months since the last checkpoint are summed.
+        Optional<BalanceCheckpoint> checkpoint = balanceCheckpointRepository
+                .findFirstByAccount_IdAndPeriodEndLessThanEqualOrderByPeriodEndDesc(accountId, instant);
+        if (checkpoint.isPresent()) {
+            BalanceCheckpoint nearest = checkpoint.get();
+            Money delta = Money.of(transactionRepository.sumAmountBetween(accountId, nearest.getPeriodEnd(), instant));
+            return nearest.getBalance().plus(delta);
+        }
+
+        Optional<Transaction> previous = transactionRepository
+                .findFirstByAccount_IdAndCreatedAtLessThanOrderByCreatedAtDescIdDesc(accountId, instant);
+        if (previous.isPresent()) {
+            return settled(previous.get()).getBalanceAfter();
+        }
+
+        // Nothing before the instant: the balance is whatever the first later posting started from.
+        return transactionRepository.findFirstByAccount_IdAndCreatedAtGreaterThanEqualOrderByCreatedAtAscIdAsc(accountId, instant)
+                .map(this::settled)
+                .map(next -> next.getBalanceAfter().minus(next.getAmount()))
+                .orElse(account.getBalance());
+    }
+
+    /**
+     * {@link #balanceBefore} of many accounts at once, with one query for every account that
+     * already has a checkpoint; only the others are looked up one by one.
+     */
+    public Map<Long, Money> balancesBefore(List<Long> accountIds, LocalDateTime instant) {
+        Map<Long, Money> balances = new HashMap<>();
+        for (Object[] row : balanceCheckpointRepository.findBalancesBefore(accountIds, instant)) {
+            balances.put(((Number) row[0]).longValue(), Money.of((BigDecimal) row[1]));
+        }
+        for (Long accountId : accountIds) {
+            if (!balances.containsKey(accountId)) {
+                balances.put(accountId, balanceBefore(accountId, instant));
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * The roll-up's checkpoint for the month ending at {@code periodEnd}, if written yet.
+     */
+    public Optional<BalanceCheckpoint> checkpoint(Long accountId, LocalDateTime periodEnd) {
+        return balanceCheckpointRepository.findByAccount_IdAndPeriodEnd(accountId, periodEnd);
+    }
+
+    private Transaction settled(Transaction posting) {
+        if (posting.getBalanceAfter() != null) {
+            return posting;
+        }
+        balanceAfterBackfill.backfill(posting.getAccount().getId());
+        return transactionRepository.findById(posting.getId()).orElse(posting);
+    }
+}
@@ -3,49 +3,61 @@ package com.bankingapi.walletapi.service;
 import com.bankingapi.walletapi.dto.BankAccountRequest;
 import com.bankingapi.walletapi.dto.BankAccountResponse;
 import com.bankingapi.walletapi.dto.DepositWithdrawRequest;
-import com.bankingapi.walletapi.enums.TransactionType;
-import com.bankingapi.walletapi.exception.AccountFrozenException;
-import com.bankingapi.walletapi.exception.InsufficientFundsException;
 import com.bankingapi.walletapi.exception.ResourceNotFoundException;
+import com.bankingapi.walletapi.engine.BalanceEngine;
+import com.bankingapi.walletapi.hotaccount.HotAccountService;
+import com.bankingapi.walletapi.idempotency.IdempotencyService;
 import com.bankingapi.walletapi.model.BankAccount;
-import com.bankingapi.walletapi.model.Transaction;
 import com.bankingapi.walletapi.repository.BankAccountRepository;
-import com.bankingapi.walletapi.repository.TransactionRepository;
 import com.bankingapi.walletapi.model.User;
+import com.bankingapi.walletapi.money.Money;
 import com.bankingapi.walletapi.repository.UserRepository;
+import com.bankingapi.walletapi.retry.OptimisticRetryExecutor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
 
 @Service
 public class BankAccountService {
     private final BankAccountRepository bankAccountRepository;
-    private final TransactionRepository transactionRepository;
+    private final LedgerService ledgerService;
     private final UserRepository userRepository;
+    private final OptimisticRetryExecutor optimisticRetryExecutor;
+    private final BalanceEngine balanceEngine;
+    private final HotAccountService hotAccountService;
+    private final IdempotencyService idempotencyService;
     private static final Logger logger = LoggerFactory.getLogger(BankAccountService.class);
 
-    private static final BigDecimal MIN_BALANCE = new BigDecimal("50.00");
-    private static final BigDecimal MAX_OVERDRAFT = new BigDecimal("-100.00");
-
     @Autowired
-    public BankAccountService(BankAccountRepository bankAccountRepository, UserRepository userRepository, TransactionRepository transactionRepository) {
+    public BankAccountService(BankAccountRepository bankAccountRepository, UserRepository userRepository, LedgerService ledgerService,
+                              OptimisticRetryExecutor optimisticRetryExecutor, ObjectProvider<BalanceEngine> balanceEngine,
+                              HotAccountService hotAccountService, IdempotencyService idempotencyService) {
         this.bankAccountRepository = bankAccountRepository;
-        this.transactionRepository = transactionRepository;
+        this.ledgerService = ledgerService;
         this.userRepository = userRepository;
+        this.optimisticRetryExecutor = optimisticRetryExecutor;
+        this.balanceEngine = balanceEngine.getIfAvailable();
+        this.hotAccountService = hotAccountService;
+        this.idempotencyService = idempotencyService;
     }
 
     public List<BankAccountResponse> getAllAccounts() {
-        return bankAccountRepository.findAll()
-                .stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        // One statement reads every row with its slots, so the read costs the same at any size.
+        List<BankAccountResponse> accounts = bankAccountRepository.findAllResponseRows().stream()
+                .map(row -> new BankAccountResponse(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                        ((Number) row[3]).longValue(), Money.of((BigDecimal) row[4]), ((Timestamp) row[5]).toLocalDateTime(),
+                        (Boolean) row[6]))
+                .toList();
+        accounts.forEach(this::applySnapshot);
+        return accounts;
     }
 
     private String generateUniqueAccountNumber() {
@@ -69,7 +81,7 @@ public class BankAccountService {
         account.setAccountType(request.getAccountType());
         account.setUser(user);
         account.setCreatedAt(LocalDateTime.now());
-        account.setBalance(BigDecimal.ZERO);
+        account.setBalance(Money.ZERO);
 
         BankAccount saved = bankAccountRepository.save(account);
 
@@ -85,6 +97,9 @@ public class BankAccountService {
 
     public void deleteAccount(Long id) {
         logger.info("Deleting bank account with id {}", id);
+        if (balanceEngine != null) {
+            balanceEngine.await(balanceEngine.evict(id));
+        }
         bankAccountRepository.deleteById(id);
         logger.info("Bank account successfully deleted for id {}", id);
     }
@@ -92,54 +107,54 @@ public class BankAccountService {
    public BankAccountResponse depositFunds(Long accountId, DepositWithdrawRequest request){
         logger.info("Depositing {} into account ID: {}", request.getAmount(), accountId);
 
+        BankAccountResponse updated = balanceEngine != null
+                ? balanceEngine.await(balanceEngine.deposit(accountId, request.getAmount()))
+                : optimisticRetryExecutor.execute("deposit", accountId,
+                        () -> idempotencyService.record(applyDeposit(accountId, request)));
+
+        logger.info("Deposit successful. New balance for account ID {}: {}", accountId, updated.getBalance());
+        return updated;
+   }
+
+   private BankAccountResponse applyDeposit(Long accountId, DepositWithdrawRequest request) {
        BankAccount account = bankAccountRepository.findById(accountId)
                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
 
-       if (account.isFrozen()) {
-           throw new AccountFrozenException("Account is frozen. Deposit denied.");
-       }
+       AccountRules.checkDeposit(account.isFrozen());
 
-        account.setBalance(account.getBalance().add(request.getAmount()));
-        BankAccount updated = bankAccountRepository.save(account);
+        // Hot accounts take the credit on a slot row and leave their own row untouched; the
+        // running balance is then unknown, so the posting gets its balance_after when the slots are folded.
+        BankAccount updated = account;
+        Money balanceAfter = null;
+        if (!hotAccountService.credit(account, request.getAmount())) {
+            account.setBalance(account.getBalance().plus(request.getAmount()));
+            updated = bankAccountRepository.save(account);
+            balanceAfter = updated.getBalance();
+        }
 
-       Transaction transaction = new Transaction();
-       transaction.setSenderAccount(null);
-       transaction.setReceiverAccount(account);
-       transaction.setAmount(request.getAmount());
-       transaction.setTransactionType(TransactionType.CREDIT);
-       transaction.setDescription("Deposit to account #" + account.getAccountNumber());
-       transaction.setCreatedAt(LocalDateTime.now());
-       transactionRepository.save(transaction);
+       ledgerService.recordDeposit(account, request.getAmount(), balanceAfter);
 
-        logger.info("Deposit successful. New balance for account ID {}: {}", accountId, updated.getBalance());
         return mapToDTO(updated);
    }
 
    public BankAccountResponse withdrawFunds(Long accountId, DepositWithdrawRequest request){
         logger.info("Withdrawing {} out of account ID: {}", request.getAmount(), accountId);
 
-       BankAccount account = bankAccountRepository.findById(accountId)
-               .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
-
-        if (account.getBalance().compareTo(request.getAmount()) < 0) {
-            throw new InsufficientFundsException("Insufficient funds");
-        }
-
-        if (account.isFrozen()) {
-            throw new AccountFrozenException("Account is frozen. Withdrawal denied.");
+        if (balanceEngine != null) {
+            return balanceEngine.await(balanceEngine.withdraw(accountId, request.getAmount()));
         }
+        return optimisticRetryExecutor.execute("withdraw", accountId,
+                () -> idempotencyService.record(applyWithdrawal(accountId, request)));
+   }
 
-        BigDecimal projectedBalance = account.getBalance().subtract(request.getAmount());
-
-        if (projectedBalance.compareTo(MAX_OVERDRAFT) < 0) {
-            throw new InsufficientFundsException("Overdraft limit exceeded. Withdrawal denied.");
-        }
+   private BankAccountResponse applyWithdrawal(Long accountId, DepositWithdrawRequest request) {
+       BankAccount account = bankAccountRepository.findById(accountId)
+               .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+       hotAccountService.fold(account);
 
-        if (projectedBalance.compareTo(MIN_BALANCE) < 0 && projectedBalance.compareTo(BigDecimal.ZERO) >= 0) {
-            logger.warn("Balance alert for account {}", accountId);
-        }
+        Money projectedBalance = AccountRules.checkWithdrawal(accountId, account.getBalance(), account.isFrozen(), request.getAmount());
 
-       if (projectedBalance.compareTo(BigDecimal.ZERO) < 0 && projectedBalance.compareTo(MAX_OVERDRAFT) <= 0) {
+       if (AccountRules.shouldAutoFreeze(projectedBalance)) {
            account.setFrozen(true);
            logger.info("Account {} auto-frozen due to overdraft.", accountId);
        }
@@ -147,30 +162,32 @@ public class BankAccountService {
         account.setBalance(projectedBalance);
         BankAccount updated = bankAccountRepository.save(account);
 
-       Transaction transaction = new Transaction();
-       transaction.setSenderAccount(account);
-       transaction.setReceiverAccount(null);
-       transaction.setAmount(request.getAmount());
-       transaction.setTransactionType(TransactionType.DEBIT);
-       transaction.setDescription("Withdrawal from account #" + account.getAccountNumber());
-       transaction.setCreatedAt(LocalDateTime.now());
-       transactionRepository.save(transaction);
+       ledgerService.recordWithdrawal(account, request.getAmount(), projectedBalance);
 
         return mapToDTO (updated);
    }
 
    public void freezeAccount(Long accountId) {
-        BankAccount account = bankAccountRepository.findById(accountId)
-                .orElseThrow(() -> new ResourceNotFoundException("Bank account with id " + accountId + " not found"));
-        account.setFrozen(true);
-        bankAccountRepository.save(account);
+        if (balanceEngine != null) {
+            balanceEngine.await(balanceEngine.setFrozen(accountId, true));
+            return;
+        }
+        optimisticRetryExecutor.execute("freeze", accountId, () -> setFrozen(accountId, true));
    }
 
    public void unfreezeAccount(Long accountId) {
+        if (balanceEngine != null) {
+            balanceEngine.await(balanceEngine.setFrozen(accountId, false));
+            return;
+        }
+        optimisticRetryExecutor.execute("unfreeze", accountId, () -> setFrozen(accountId, false));
+   }
+
+   private BankAccount setFrozen(Long accountId, boolean frozen) {
         BankAccount account = bankAccountRepository.findById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Bank account with id " + accountId + " not found"));
-        account.setFrozen(false);
-        bankAccountRepository.save(account);
+        account.setFrozen(frozen);
+        return bankAccountRepository.save(account);
    }
 
     public BankAccountResponse mapToDTO(BankAccount account) {
@@ -179,10 +196,22 @@ public class BankAccountService {
         dto.setAccountNumber(account.getAccountNumber());
         dto.setAccountType(account.getAccountType());
         dto.setUserId(account.getUser().getId());
-        dto.setBalance(account.getBalance());
+        dto.setBalance(hotAccountService.balanceOf(account));
         dto.setCreatedAt(account.getCreatedAt());
         dto.setFrozen(account.isFrozen());
+
+        applySnapshot(dto);
         return dto;
     }
 
+    // The engine's in-memory state is ahead of the row until its next flush.
+    private void applySnapshot(BankAccountResponse dto) {
+        if (balanceEngine != null) {
+            balanceEngine.snapshot(dto.getAccountId()).ifPresent(snapshot -> {
+                dto.setBalance(snapshot.balance());
+                dto.setFrozen(snapshot.frozen());
+            });
+        }
+    }
+
 }
@@ -0,0 +1,102 @@
+package com.bankingapi.walletapi.service;
+
+import com.bankingapi.walletapi.enums.TransactionType;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.LedgerEntry;
+import com.bankingapi.walletapi.model.Transaction;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Writes the double-entry ledger: one {@link LedgerEntry} per money movement and one narrow
+ * posting per account it touches. Callers pass the account's balance after the posting; it is
+ * written in the same database transaction as the balance update.
+ */
+@Service
+public class LedgerService {
+
+    private final TransactionRepository transactionRepository;
+
+    @Autowired
+    public LedgerService(TransactionRepository transactionRepository) {
+        this.transactionRepository = transactionRepository;
+    }
+
+    public Transaction recordDeposit(BankAccount account, Money amount, Money balanceAfter) {
+        LedgerEntry entry = entry(null, account, LocalDateTime.now());
+        return transactionRepository.save(posting(entry, account, amount, balanceAfter));
+    }
+
+    public Transaction recordWithdrawal(BankAccount account, Money amount, Money balanceAfter) {
+        LedgerEntry entry = entry(account, null, LocalDateTime.now());
+        return transactionRepository.save(posting(entry, account, amount.negate(), balanceAfter));
+    }
+
+    /**
+     * Records a transfer whose balances have already been applied to both accounts and returns
+     * the debit and credit postings.
+     */
+    public List<Transaction> recordTransfer(BankAccount sender, BankAccount receiver, Money amount, LocalDateTime createdAt) {
+        return transactionRepository.saveAll(buildTransfer(sender, receiver, amount, createdAt));
+    }
+
+    /**
+     * Same as {@link #recordTransfer} without saving, for callers that save a whole batch at once.
+     */
+    public List<Transaction> buildTransfer(BankAccount sender, BankAccount receiver, Money amount, LocalDateTime createdAt) {
+        LedgerEntry entry = entry(sender, receiver, createdAt);
+        return List.of(posting(entry, sender, amount.negate(), sender.getBalance()),
+                posting(entry, receiver, amount, receiver.getBalance()));
+    }
+
+    public List<Transaction> saveAll(List<Transaction> postings) {
+        return transactionRepository.saveAll(postings);
+    }
+
+    /**
+     * Standard description of a posting, as previously stored on every transaction row.
+     */
+    public static String describe(TransactionType type, String senderNumber, String receiverNumber) {
+        if (type == TransactionType.DEBIT) {
+            return receiverNumber != null
+                    ? "Transfer from account #" + receiverNumber
+                    : "Withdrawal from account #" + senderNumber;
+        }
+        return senderNumber != null
+                ? "Transfer to account #" + senderNumber
+                : "Deposit to account #" + receiverNumber;
+    }
+
+    public static String describe(Transaction posting) {
+        LedgerEntry entry = posting.getEntry();
+        if (entry.getDescription() != null) {
+            return entry.getDescription();
+        }
+        return describe(posting.getTransactionType(),
+                entry.getSenderAccount() != null ? entry.getSenderAccount().getAccountNumber() : null,
+                entry.getReceiverAccount() != null ? entry.getReceiverAccount().getAccountNumber() : null);
+    }
+
+    private LedgerEntry entry(BankAccount sender, BankAccount receiver, LocalDateTime createdAt) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setSenderAccount(sender);
+        entry.setReceiverAccount(receiver);
+        entry.setCreatedAt(createdAt);
+        return entry;
+    }
+
+    private Transaction posting(LedgerEntry entry, BankAccount account, Money amount, Money balanceAfter) {
+        Transaction posting = new Transaction();
+        posting.setEntry(entry);
+        posting.setAccount(account);
+        posting.setCreatedAt(entry.getCreatedAt());
+        posting.setAmount(amount);
+        posting.setBalanceAfter(balanceAfter);
+        return posting;
+    }
+}
@@ -1,7 +1,8 @@
 package com.bankingapi.walletapi.service;
 
 import com.bankingapi.walletapi.dto.TransactionResponse;
-import com.bankingapi.walletapi.enums.TransactionType;
+import com.bankingapi.walletapi.model.BalanceCheckpoint;
+import com.bankingapi.walletapi.money.Money;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.PdfPCell;
 import com.lowagie.text.pdf.PdfPTable;
@@ -10,140 +11,158 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
-import java.math.BigDecimal;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 @Service
 public class PdfStatementService {
 
+    private static final int ROWS_PER_FLUSH = 40;
+
     private final TransactionService transactionService;
+    private final BalanceHistoryService balanceHistoryService;
 
     @Autowired
-    public PdfStatementService(TransactionService transactionService) {
+    public PdfStatementService(TransactionService transactionService, BalanceHistoryService balanceHistoryService) {
         this.transactionService = transactionService;
+        this.balanceHistoryService = balanceHistoryService;
     }
 
     public byte[] generateStatementPdf(Long accountId, LocalDateTime from, LocalDateTime to) {
-        List<TransactionResponse> transactions = transactionService.getTransactionsByAccountId(accountId);
-
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-
-            Document document = new Document(PageSize.A4);
-            PdfWriter.getInstance(document, out);
-            document.open();
-
-            Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 20);
-            Paragraph title = new Paragraph("Bank Statement", titleFont);
-            title.setAlignment(Element.ALIGN_CENTER);
-            document.add(title);
-
-            Font metaFont = FontFactory.getFont(FontFactory.HELVETICA, 12);
-            Paragraph metadata = new Paragraph(
-                    String.format("Account ID: %d\nDate Range: %s - %s\n\n", accountId,
-                            from.format(DateTimeFormatter.ISO_LOCAL_DATE),
-                            to.format(DateTimeFormatter.ISO_LOCAL_DATE)),
-                    metaFont
-            );
-            document.add(metadata);
-
-            generatePdfTable(document, transactions);
-            document.close();
+        return toBytes(statement(accountId, from, to));
+    }
 
-            return out.toByteArray();
+    public byte[] generateMonthlyStatementPdf(Long accountId, YearMonth month) {
+        return toBytes(monthlyStatement(accountId, month));
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate PDF statement", e);
+    /**
+     * Checks the range up front, so a bad request fails before anything is written.
+     */
+    public StatementPdf statement(Long accountId, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Invalid date range");
         }
+        return out -> write(out, "Bank Statement",
+                String.format("Account ID: %d\nDate Range: %s - %s\n\n", accountId,
+                        from.format(DateTimeFormatter.ISO_LOCAL_DATE),
+                        to.format(DateTimeFormatter.ISO_LOCAL_DATE)),
+                // The range includes to; postings are stored with microsecond precision.
+                table -> transactionService.forEachInAccountHistory(accountId, from, to.plusNanos(1_000), table));
     }
 
-    public byte[] generateMonthlyStatementPdf(Long accountId, YearMonth month) {
+    /**
+     * Looks up the opening and closing balances up front, so an unknown account fails before
+     * anything is written. Balances and postings are all read on the primary, where the statement
+     * cache reads the version it files the document under.
+     */
+    public StatementPdf monthlyStatement(Long accountId, YearMonth month) {
         LocalDateTime startDate = month.atDay(1).atStartOfDay();
-        LocalDateTime endDate = month.atEndOfMonth().atTime(23, 59, 59);
+        LocalDateTime endDate = month.plusMonths(1).atDay(1).atStartOfDay();
 
-        List<TransactionResponse> allTransactions = transactionService.getTransactionsByAccountId(accountId);
+        // A rolled-up month has both balances in its checkpoint.
+        Optional<BalanceCheckpoint> checkpoint = balanceHistoryService.checkpoint(accountId, endDate);
+        Money closingBalance = checkpoint.map(BalanceCheckpoint::getBalance)
+                .orElseGet(() -> balanceHistoryService.balanceBefore(accountId, endDate));
+        Money openingBalance = checkpoint.map(c -> c.getBalance().minus(c.getCredits()).plus(c.getDebits()))
+                .orElseGet(() -> balanceHistoryService.balanceBefore(accountId, startDate));
 
-        BigDecimal openingBalance = BigDecimal.ZERO;
-        BigDecimal closingBalance = BigDecimal.ZERO;
-
-        boolean seenFirst = false;
+        return monthlyStatement(accountId, month, openingBalance, closingBalance,
+                table -> transactionService.forEachInAccountHistoryOnPrimary(accountId, startDate, endDate, table));
+    }
 
-        for (TransactionResponse tx : allTransactions.stream().sorted((a, b) -> a.getCreatedAt().compareTo(b.getCreatedAt())).toList()) {
-            if (tx.getCreatedAt().isBefore(startDate)) {
-                openingBalance = applyTransaction(openingBalance, tx, accountId);
-            } else if (!tx.getCreatedAt().isAfter(endDate)) {
-                if (!seenFirst) {
-                    closingBalance = openingBalance;
-                    seenFirst = true;
-                }
-                closingBalance = applyTransaction(closingBalance, tx, accountId);
-            }
-        }
+    /**
+     * A monthly statement of balances and postings the caller already loaded, e.g. for many
+     * accounts at once.
+     */
+    public StatementPdf monthlyStatement(Long accountId, YearMonth month, Money openingBalance, Money closingBalance,
+                                         List<TransactionResponse> transactions) {
+        return monthlyStatement(accountId, month, openingBalance, closingBalance, transactions::forEach);
+    }
 
-        List<TransactionResponse> monthlyTransactions = allTransactions.stream()
-                .filter(tx -> !tx.getCreatedAt().isBefore(startDate) && !tx.getCreatedAt().isAfter(endDate))
-                .toList();
+    private StatementPdf monthlyStatement(Long accountId, YearMonth month, Money openingBalance, Money closingBalance,
+                                          Consumer<Consumer<TransactionResponse>> transactions) {
+        return out -> write(out, "Monthly Bank Statement",
+                String.format("Account ID: %d\nMonth: %s\n\nOpening Balance: %s\nClosing Balance: %s\n\n",
+                        accountId, month.toString(), openingBalance.toString(), closingBalance.toString()),
+                transactions);
+    }
 
-        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            Document document = new Document(PageSize.A4);
-            PdfWriter.getInstance(document, out);
+    private void write(OutputStream out, String heading, String info,
+                       Consumer<Consumer<TransactionResponse>> transactions) {
+        Document document = new Document(PageSize.A4);
+        try {
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            // The caller owns the stream, e.g. the servlet response.
+            writer.setCloseStream(false);
             document.open();
 
             Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 20);
-            Paragraph title = new Paragraph("Monthly Bank Statement", titleFont);
+            Paragraph title = new Paragraph(heading, titleFont);
             title.setAlignment(Element.ALIGN_CENTER);
             document.add(title);
 
             Font infoFont = FontFactory.getFont(FontFactory.HELVETICA, 12);
-            Paragraph info = new Paragraph(String.format(
-                    "Account ID: %d\nMonth: %s\n\n", accountId, month.toString()
-            ), infoFont);
-            document.add(info);
-
+            document.add(new Paragraph(info, infoFont));
 
-            Paragraph summary = new Paragraph(
-                    String.format("Opening Balance: %s\nClosing Balance: %s\n\n",
-                            openingBalance.toString(),
-                            closingBalance.toString()),
-                    infoFont
-            );
-            document.add(summary);
-
-            generatePdfTable(document, monthlyTransactions);
+            generatePdfTable(document, transactions);
             document.close();
-            return out.toByteArray();
-
-        } catch (Exception e) {
+        } catch (DocumentException e) {
             throw new RuntimeException("Failed to generate PDF statement", e);
         }
     }
 
-    private BigDecimal applyTransaction(BigDecimal currentBalance, TransactionResponse tx, Long accountId) {
-        if (tx.getTransactionType() == null || tx.getAmount() == null) return currentBalance;
+    /**
+     * Adds the table in incomplete mode: every {@link #ROWS_PER_FLUSH} rows, about a page, the
+     * rows so far are laid out and dropped from the table, so only one page of rows is held.
+     */
+    private void generatePdfTable(Document document, Consumer<Consumer<TransactionResponse>> transactions)
+            throws DocumentException {
+        PdfPTable table = new PdfPTable(6);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(10);
+        table.setHeaderRows(1);
+        table.setComplete(false);
+        addTableHeader(table);
 
-        boolean isThisAccountSender = tx.getSenderId() != null && tx.getSenderId().equals(accountId);
-        boolean isThisAccountReceiver = tx.getReceiverId() != null && tx.getReceiverId().equals(accountId);
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        int[] pending = new int[1];
+        transactions.accept(tx -> {
+            addTransactionRow(table, tx, formatter);
+            if (++pending[0] == ROWS_PER_FLUSH) {
+                pending[0] = 0;
+                add(document, table);
+            }
+        });
+        table.setComplete(true);
+        document.add(table);
+    }
 
-        if (tx.getTransactionType() == TransactionType.DEBIT && isThisAccountSender) {
-            return currentBalance.subtract(tx.getAmount());
-        } else if (tx.getTransactionType() == TransactionType.CREDIT && isThisAccountReceiver) {
-            return currentBalance.add(tx.getAmount());
+    private static void add(Document document, PdfPTable table) {
+        try {
+            document.add(table);
+        } catch (DocumentException e) {
+            throw new RuntimeException("Failed to generate PDF statement", e);
         }
-        return currentBalance;
     }
 
-
-    private void generatePdfTable(Document document, List<TransactionResponse> transactions) throws DocumentException {
-               PdfPTable table = new PdfPTable(6);
-               table.setWidthPercentage(100);
-               table.setSpacingBefore(10);
-               addTableHeader(table);
-               addTransactionRows(table, transactions);
-               document.add(table);
-           }
+    private static byte[] toBytes(StatementPdf statement) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            statement.writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
 
     private void addTableHeader(PdfPTable table) {
         Stream.of("Transaction ID", "Sender ID", "Receiver ID", "Amount", "Date", "Transaction Type")
@@ -154,16 +173,12 @@ public class PdfStatementService {
                 });
     }
 
-    private void addTransactionRows(PdfPTable table, List<TransactionResponse> transactions) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-
-        for (TransactionResponse tx : transactions) {
-            table.addCell(tx.getTransactionId() != null ? tx.getTransactionId().toString() : "—");
-            table.addCell(tx.getSenderId() != null ? tx.getSenderId().toString() : "—");
-            table.addCell(tx.getReceiverId() != null ? tx.getReceiverId().toString() : "—");
-            table.addCell(tx.getAmount() != null ? tx.getAmount().toString() : "—");
-            table.addCell(tx.getCreatedAt() != null ? tx.getCreatedAt().format(formatter) : "—");
-            table.addCell(tx.getTransactionType() != null ? tx.getTransactionType().name() : "—");
-        }
+    private void addTransactionRow(PdfPTable table, TransactionResponse tx, DateTimeFormatter formatter) {
+        table.addCell(tx.getTransactionId() != null ? tx.getTransactionId().toString() : "—");
+        table.addCell(tx.getSenderId() != null ? tx.getSenderId().toString() : "—");
+        table.addCell(tx.getReceiverId() != null ? tx.getReceiverId().toString() : "—");
+        table.addCell(tx.getAmount() != null ? tx.getAmount().toString() : "—");
+        table.addCell(tx.getCreatedAt() != null ? tx.getCreatedAt().format(formatter) : "—");
+        table.addCell(tx.getTransactionType() != null ? tx.getTransactionType().name() : "—");
     }
 }
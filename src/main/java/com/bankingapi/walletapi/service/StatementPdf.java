@@ -0,0 +1,14 @@
+package com.bankingapi.walletapi.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A statement that has been checked and can be rendered. Rendering reads the postings and writes
+ * the PDF page by page into the stream, so the document is never held in memory as a whole.
+ */
+@FunctionalInterface
+public interface StatementPdf {
+
+    void writeTo(OutputStream out) throws IOException;
+}
@@ -1,24 +1,54 @@
 package com.bankingapi.walletapi.service;
 
+import com.bankingapi.walletapi.datasource.ReadOnlyTransaction;
+import com.bankingapi.walletapi.dto.BatchTransferItemResult;
+import com.bankingapi.walletapi.dto.BatchTransferResponse;
 import com.bankingapi.walletapi.dto.TransferRequest;
+import com.bankingapi.walletapi.engine.BalanceEngine;
+import com.bankingapi.walletapi.enums.CountMode;
+import com.bankingapi.walletapi.enums.TransferStatus;
+import com.bankingapi.walletapi.exception.AccountFrozenException;
+import com.bankingapi.walletapi.export.ExportProperties;
+import com.bankingapi.walletapi.export.TransactionCsvWriter;
+import com.bankingapi.walletapi.export.TransactionExportFilter;
+import com.bankingapi.walletapi.export.TransactionRowCursor;
 import com.bankingapi.walletapi.exception.InsufficientFundsException;
 import com.bankingapi.walletapi.exception.ResourceNotFoundException;
+import com.bankingapi.walletapi.hotaccount.HotAccountService;
+import com.bankingapi.walletapi.idempotency.IdempotencyService;
 import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.LedgerEntry;
 import com.bankingapi.walletapi.model.Transaction;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.pagination.CursorCodec;
+import com.bankingapi.walletapi.pagination.CursorPage;
+import com.bankingapi.walletapi.pagination.TransactionCursor;
 import com.bankingapi.walletapi.enums.TransactionType;
 import com.bankingapi.walletapi.repository.BankAccountRepository;
 import com.bankingapi.walletapi.repository.TransactionRepository;
+import com.bankingapi.walletapi.repository.TransactionRow;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import com.bankingapi.walletapi.dto.TransactionResponse;
 
-import java.io.PrintWriter;
-import java.math.BigDecimal;
+import java.io.Writer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -30,22 +60,40 @@ public class TransactionService {
 
     private final TransactionRepository transactionRepository;
     private final BankAccountRepository bankAccountRepository;
+    private final BalanceEngine balanceEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final HotAccountService hotAccountService;
+    private final LedgerService ledgerService;
+    private final CursorCodec cursorCodec;
+    private final TransactionRowCursor transactionRowCursor;
+    private final ExportProperties exportProperties;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public TransactionService(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository) {
+    public TransactionService(TransactionRepository transactionRepository, BankAccountRepository bankAccountRepository,
+                              ObjectProvider<BalanceEngine> balanceEngine, PlatformTransactionManager transactionManager,
+                              HotAccountService hotAccountService, LedgerService ledgerService, CursorCodec cursorCodec,
+                              TransactionRowCursor transactionRowCursor, ExportProperties exportProperties,
+                              IdempotencyService idempotencyService) {
         this.transactionRepository = transactionRepository;
         this.bankAccountRepository = bankAccountRepository;
+        this.balanceEngine = balanceEngine.getIfAvailable();
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.hotAccountService = hotAccountService;
+        this.ledgerService = ledgerService;
+        this.cursorCodec = cursorCodec;
+        this.transactionRowCursor = transactionRowCursor;
+        this.exportProperties = exportProperties;
+        this.idempotencyService = idempotencyService;
     }
 
-    public List<Transaction> getAllTransactions() {
-        return transactionRepository.findAll();
-    }
-
+    @ReadOnlyTransaction
     public Transaction getTransactionById(Long id) {
-        return transactionRepository.findById(id)
+        return transactionRepository.findWithPartiesById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Transaction not found."));
     }
 
+    @ReadOnlyTransaction
     public TransactionResponse getTransactionResponseById(Long id) {
         Transaction transaction = getTransactionById(id);
         return mapToDTO(transaction);
@@ -53,133 +101,368 @@ public class TransactionService {
 
     public List<TransactionResponse> transferFunds(TransferRequest request) {
         logger.info("Initiating transfer of amount: {}", request.getAmount());
-        BankAccount sender = bankAccountRepository.findById(request.getSenderId())
-                .orElseThrow(() -> {
-                    logger.error("Sender account with ID {} not found", request.getSenderId());
-                    return new ResourceNotFoundException("Sender account not found.");
-                });
 
-        BankAccount receiver = bankAccountRepository.findById(request.getReceiverId())
-                .orElseThrow(() -> {
-                    logger.error("Receiver account with ID {} not found.", request.getReceiverId());
-                    return new ResourceNotFoundException("Receiver account not found.");
-                });
+        if (balanceEngine != null) {
+            return balanceEngine.await(balanceEngine.transfer(request.getSenderId(), request.getReceiverId(), request.getAmount()));
+        }
+        // The Idempotency-Key, if any, commits with the transfer.
+        return transactionTemplate.execute(status -> idempotencyService.record(transferWithLocks(request)));
+    }
 
-        BigDecimal amount = request.getAmount();
-        if (sender.getBalance().compareTo(amount) < 0) {
-            throw new InsufficientFundsException("Insufficient funds in sender account.");
+    private List<TransactionResponse> transferWithLocks(TransferRequest request) {
+        // Rows are always locked lowest id first so opposing A->B / B->A transfers cannot deadlock.
+        BankAccount sender;
+        BankAccount receiver;
+        if (request.getSenderId() <= request.getReceiverId()) {
+            sender = lockSender(request.getSenderId());
+            receiver = lockReceiver(request.getReceiverId());
+        } else {
+            receiver = lockReceiver(request.getReceiverId());
+            sender = lockSender(request.getSenderId());
         }
 
-        sender.setBalance(sender.getBalance().subtract(amount));
-        receiver.setBalance(receiver.getBalance().add(amount));
+        // The receiver is folded too, so its posting's balance_after covers its slot deposits.
+        hotAccountService.fold(sender);
+        hotAccountService.fold(receiver);
+        Money amount = request.getAmount();
+        AccountRules.checkTransfer(sender.getBalance(), amount);
+
+        sender.setBalance(sender.getBalance().minus(amount));
+        receiver.setBalance(receiver.getBalance().plus(amount));
 
         bankAccountRepository.save(receiver);
         bankAccountRepository.save(sender);
 
         logger.info("Transfer completed. Sender new balance: {}, Receiver new balance: {}", sender.getBalance(), receiver.getBalance());
 
-        Transaction debitTransaction = new Transaction();
-        debitTransaction.setSenderAccount(sender);
-        debitTransaction.setReceiverAccount(receiver);
-        debitTransaction.setAmount(amount);
-        debitTransaction.setTransactionType(TransactionType.DEBIT);
-        debitTransaction.setDescription("Transfer from account #" + receiver.getAccountNumber());
-        debitTransaction.setCreatedAt(LocalDateTime.now());
+        List<Transaction> postings = ledgerService.recordTransfer(sender, receiver, amount, LocalDateTime.now());
+
+        logger.info("Created ledger entry with DEBIT and CREDIT postings");
+
+        return postings.stream().map(this::mapToDTO).toList();
+    }
+
+    public BatchTransferResponse transferFundsBatch(List<TransferRequest> requests) {
+        logger.info("Initiating batch of {} transfers", requests.size());
+
+        if (balanceEngine != null) {
+            return transferFundsBatchOnEngine(requests);
+        }
+        return transactionTemplate.execute(status -> transferBatchWithLocks(requests));
+    }
+
+    private BatchTransferResponse transferBatchWithLocks(List<TransferRequest> requests) {
+
+        Set<Long> accountIds = new TreeSet<>();
+        for (TransferRequest request : requests) {
+            if (request != null && request.getSenderId() != null && request.getReceiverId() != null) {
+                accountIds.add(request.getSenderId());
+                accountIds.add(request.getReceiverId());
+            }
+        }
+
+        // Every involved row is locked once, in ascending id order, for the whole batch.
+        Map<Long, BankAccount> accounts = new HashMap<>();
+        if (!accountIds.isEmpty()) {
+            for (BankAccount account : bankAccountRepository.findAllByIdForUpdate(accountIds)) {
+                hotAccountService.fold(account);
+                accounts.put(account.getId(), account);
+            }
+        }
+
+        List<BatchTransferItemResult> results = new ArrayList<>(requests.size());
+        List<Transaction> ledgerRows = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        int succeeded = 0;
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransferStatus status = applyBatchTransfer(requests.get(i), accounts, ledgerRows, now);
+            if (status == TransferStatus.OK) {
+                succeeded++;
+            }
+            results.add(new BatchTransferItemResult(i, status, describe(status)));
+        }
+
+        ledgerService.saveAll(ledgerRows);
+
+        logger.info("Batch completed. {} applied, {} rejected", succeeded, requests.size() - succeeded);
+        return new BatchTransferResponse(succeeded, requests.size() - succeeded, results);
+    }
+
+    private BatchTransferResponse transferFundsBatchOnEngine(List<TransferRequest> requests) {
+        List<CompletableFuture<List<TransactionResponse>>> pending = new ArrayList<>(requests.size());
+        for (TransferRequest request : requests) {
+            pending.add(isValidBatchTransfer(request)
+                    ? balanceEngine.transfer(request.getSenderId(), request.getReceiverId(), request.getAmount())
+                    : null);
+        }
+
+        List<BatchTransferItemResult> results = new ArrayList<>(requests.size());
+        int succeeded = 0;
+        for (int i = 0; i < pending.size(); i++) {
+            TransferStatus status;
+            if (pending.get(i) == null) {
+                status = TransferStatus.INVALID;
+            } else {
+                try {
+                    balanceEngine.await(pending.get(i));
+                    status = TransferStatus.OK;
+                    succeeded++;
+                } catch (InsufficientFundsException e) {
+                    status = TransferStatus.INSUFFICIENT_FUNDS;
+                } catch (AccountFrozenException e) {
+                    status = TransferStatus.FROZEN;
+                } catch (ResourceNotFoundException e) {
+                    status = TransferStatus.NOT_FOUND;
+                }
+            }
+            results.add(new BatchTransferItemResult(i, status, describe(status)));
+        }
+        return new BatchTransferResponse(succeeded, requests.size() - succeeded, results);
+    }
+
+    private boolean isValidBatchTransfer(TransferRequest request) {
+        return request != null && request.getSenderId() != null && request.getReceiverId() != null
+                && request.getAmount() != null && request.getAmount().signum() > 0;
+    }
+
+    private TransferStatus applyBatchTransfer(TransferRequest request, Map<Long, BankAccount> accounts,
+                                              List<Transaction> ledgerRows, LocalDateTime now) {
+        if (!isValidBatchTransfer(request)) {
+            return TransferStatus.INVALID;
+        }
+
+        BankAccount sender = accounts.get(request.getSenderId());
+        BankAccount receiver = accounts.get(request.getReceiverId());
+        if (sender == null || receiver == null) {
+            return TransferStatus.NOT_FOUND;
+        }
+
+        Money amount = request.getAmount();
+        TransferStatus status = AccountRules.transferStatus(sender.isFrozen(), receiver.isFrozen(), sender.getBalance(), amount);
+        if (status != TransferStatus.OK) {
+            return status;
+        }
 
-        Transaction creditTransaction = new Transaction();
-        creditTransaction.setSenderAccount(sender);
-        creditTransaction.setReceiverAccount(receiver);
-        creditTransaction.setAmount(amount);
-        creditTransaction.setTransactionType(TransactionType.CREDIT);
-        creditTransaction.setDescription("Transfer to account #" + sender.getAccountNumber());
-        creditTransaction.setCreatedAt(LocalDateTime.now());
+        sender.setBalance(sender.getBalance().minus(amount));
+        receiver.setBalance(receiver.getBalance().plus(amount));
 
-        transactionRepository.save(debitTransaction);
-        transactionRepository.save(creditTransaction);
+        ledgerRows.addAll(ledgerService.buildTransfer(sender, receiver, amount, now));
+        return TransferStatus.OK;
+    }
 
-        logger.info("Created 2 transaction records: DEBIT and CREDIT");
+    private String describe(TransferStatus status) {
+        return switch (status) {
+            case OK -> "Transfer completed";
+            case INSUFFICIENT_FUNDS -> "Insufficient funds in sender account.";
+            case FROZEN -> "Sender or receiver account is frozen.";
+            case NOT_FOUND -> "Sender or receiver account not found.";
+            case INVALID -> "Sender, receiver and a positive amount are required.";
+        };
+    }
+
+    private BankAccount lockSender(Long senderId) {
+        return bankAccountRepository.findByIdForUpdate(senderId)
+                .orElseThrow(() -> {
+                    logger.error("Sender account with ID {} not found", senderId);
+                    return new ResourceNotFoundException("Sender account not found.");
+                });
+    }
 
-        return List.of(mapToDTO(debitTransaction), mapToDTO(creditTransaction));
+    private BankAccount lockReceiver(Long receiverId) {
+        return bankAccountRepository.findByIdForUpdate(receiverId)
+                .orElseThrow(() -> {
+                    logger.error("Receiver account with ID {} not found.", receiverId);
+                    return new ResourceNotFoundException("Receiver account not found.");
+                });
     }
 
         public TransactionResponse mapToDTO (Transaction transaction){
+            LedgerEntry entry = transaction.getEntry();
             TransactionResponse dto = new TransactionResponse();
             dto.setTransactionId(transaction.getId());
-            dto.setAmount(transaction.getAmount());
-            dto.setDescription(transaction.getDescription());
+            dto.setAmount(transaction.getTransactionType() == TransactionType.DEBIT
+                    ? transaction.getAmount().negate()
+                    : transaction.getAmount());
+            dto.setDescription(LedgerService.describe(transaction));
             dto.setTransactionType(transaction.getTransactionType());
-            dto.setCreatedAt(transaction.getCreatedAt());
+            dto.setCreatedAt(entry.getCreatedAt());
+            dto.setAccountId(transaction.getAccount().getId());
 
-            if (transaction.getSenderAccount() != null) {
-                dto.setSenderId(transaction.getSenderAccount().getId());
+            if (entry.getSenderAccount() != null) {
+                dto.setSenderId(entry.getSenderAccount().getId());
             }
 
-            if (transaction.getReceiverAccount() != null) {
-                dto.setReceiverId(transaction.getReceiverAccount().getId());
-            }
-
-            if (transaction.getTransactionType() == TransactionType.DEBIT) {
-                if (transaction.getSenderAccount() != null) {
-                    dto.setAccountId(transaction.getSenderAccount().getId());
-                }
-            } else if (transaction.getTransactionType() == TransactionType.CREDIT) {
-                if (transaction.getReceiverAccount() != null) {
-                    dto.setAccountId(transaction.getReceiverAccount().getId());
-                }
+            if (entry.getReceiverAccount() != null) {
+                dto.setReceiverId(entry.getReceiverAccount().getId());
             }
             return dto;
         }
 
-        public List<TransactionResponse> getTransactionsByAccountId(Long accountId) {
-            List<Transaction> sent = transactionRepository.findBySenderAccount_Id(accountId);
-            List<Transaction> received = transactionRepository.findByReceiverAccount_Id(accountId);
+        /**
+         * Same response as {@link #mapToDTO(Transaction)}, built from a projected row.
+         */
+        public TransactionResponse mapToDTO(TransactionRow row) {
+            TransactionType type = row.amount().signum() < 0 ? TransactionType.DEBIT : TransactionType.CREDIT;
+            String description = row.description() != null
+                    ? row.description()
+                    : LedgerService.describe(type, row.senderNumber(), row.receiverNumber());
+            Money amount = type == TransactionType.DEBIT ? row.amount().negate() : row.amount();
+            return new TransactionResponse(row.id(), row.senderId(), row.receiverId(), amount, description,
+                    row.createdAt(), row.accountId(), type);
+        }
 
-            List<TransactionResponse> allTransactions = new ArrayList<>();
+        @ReadOnlyTransaction
+        public List<TransactionResponse> getTransactionsByAccountId(Long accountId) {
+            return transactionRepository.findByAccount_IdOrderByCreatedAtAscIdAsc(accountId).stream()
+                    .map(this::mapToDTO)
+                    .collect(Collectors.toList());
+        }
 
-            for (Transaction t : sent) {
-                TransactionResponse dto = mapToDTO(t);
-                allTransactions.add(dto);
+        /**
+         * One page of the account's history in (created_at, id) order, starting after the cursor.
+         */
+        @ReadOnlyTransaction
+        public CursorPage<TransactionResponse> getTransactionsByAccountId(Long accountId, String after, int limit) {
+            CursorPage.checkLimit(limit);
+            List<TransactionRow> rows;
+            if (after == null || after.isBlank()) {
+                rows = transactionRepository.findAccountPage(accountId, PageRequest.ofSize(limit + 1));
+            } else {
+                TransactionCursor cursor = cursorCodec.decode(after);
+                rows = transactionRepository.findAccountPageAfter(accountId, cursor.createdAt(), cursor.id(),
+                        PageRequest.ofSize(limit + 1));
             }
 
-            for (Transaction t : received) {
-                TransactionResponse dto = mapToDTO(t);
-                allTransactions.add(dto);
+            return toPage(rows, limit, null);
+        }
+
+        /**
+         * Passes the account's postings created in [from, to) to {@code action} oldest first, one
+         * at a time as they are read from a cursor, for callers that must not hold the whole history.
+         */
+        @ReadOnlyTransaction
+        public void forEachInAccountHistory(Long accountId, LocalDateTime from, LocalDateTime to,
+                                            Consumer<TransactionResponse> action) {
+            transactionRowCursor.forEachByCreatedAt(new TransactionExportFilter(accountId, from, to),
+                    row -> action.accept(mapToDTO(row)));
+        }
+
+        /**
+         * {@link #forEachInAccountHistory} on the primary, for documents keyed by a version read
+         * there: a lagging replica would render an older history under the newer key.
+         */
+        @Transactional(readOnly = true)
+        public void forEachInAccountHistoryOnPrimary(Long accountId, LocalDateTime from, LocalDateTime to,
+                                                     Consumer<TransactionResponse> action) {
+            transactionRowCursor.forEachByCreatedAt(new TransactionExportFilter(accountId, from, to),
+                    row -> action.accept(mapToDTO(row)));
+        }
+
+        /**
+         * The postings created in [from, to) of the accounts, keyed by account and oldest first,
+         * read with a single range query over the accounts' ids. Read on the primary, like the
+         * balances callers derive opening balances from, so a lagging replica cannot leave out
+         * postings a balance already includes.
+         */
+        @Transactional(readOnly = true)
+        public Map<Long, List<TransactionResponse>> getAccountHistories(List<Long> accountIds, LocalDateTime from,
+                                                                        LocalDateTime to) {
+            Map<Long, List<TransactionResponse>> histories = new HashMap<>();
+            if (accountIds.isEmpty()) {
+                return histories;
             }
-            return allTransactions;
+            Set<Long> wanted = Set.copyOf(accountIds);
+            transactionRowCursor.forEachInAccountRange(Collections.min(accountIds), Collections.max(accountIds), from, to,
+                    row -> {
+                        if (wanted.contains(row.accountId())) {
+                            histories.computeIfAbsent(row.accountId(), id -> new ArrayList<>()).add(mapToDTO(row));
+                        }
+                    });
+            return histories;
         }
 
+        @ReadOnlyTransaction
         public List<TransactionResponse> getTransactionsByDateRange(LocalDateTime fromDate, LocalDateTime toDate) {
-            List<Transaction> transactions = transactionRepository.findByCreatedAtBetween(fromDate,toDate);
-            return transactions.stream()
+            List<TransactionRow> rows = transactionRepository.findRowsByCreatedAtBetween(fromDate, toDate);
+            return rows.stream()
                     .map(this::mapToDTO)
                     .collect(Collectors.toList());
         }
 
-        public List<TransactionResponse> getTransactionsByAmountRange(BigDecimal minAmount, BigDecimal maxAmount) {
-           List<Transaction> transactions = transactionRepository.findByAmountBetween(minAmount, maxAmount);
-           return transactions.stream()
+        @ReadOnlyTransaction
+        public List<TransactionResponse> getTransactionsByAmountRange(Money minAmount, Money maxAmount) {
+           List<TransactionRow> rows = transactionRepository.findRowsByAmountBetween(minAmount, maxAmount);
+           return rows.stream()
                    .map(this::mapToDTO)
                    .collect(Collectors.toList());
         }
 
+        @ReadOnlyTransaction
         public Page<TransactionResponse> getAllTransactions(Pageable pageable) {
-            Page<Transaction> transactions = transactionRepository.findAll(pageable);
-                return transactions.map(this::mapToDTO);
-        }
-
-        public void exportTransactionsToCsv(PrintWriter writer) {
-           List<Transaction> transactions = transactionRepository.findAll();
-
-           writer.println("Transaction ID, Sender ID, Receiver ID, Amount, Description,CreatedAt");
-           for (Transaction t : transactions) {
-               writer.println(String.format("%d,%s,%s,%.2f,%s,%s",
-                       t.getId(),
-                       t.getSenderAccount() != null ? t.getSenderAccount().getId() : "N/A",
-                       t.getReceiverAccount() != null ? t.getReceiverAccount().getId() : "N/A",
-                       t.getAmount(),
-                       t.getDescription(),
-                       t.getCreatedAt().toString()
-               ));
-           }
+            Page<TransactionRow> rows = transactionRepository.findRows(pageable);
+                return rows.map(this::mapToDTO);
+        }
+
+        /**
+         * One page of all transactions in (created_at, id) order, seeking past the cursor instead
+         * of skipping rows with OFFSET.
+         */
+        @ReadOnlyTransaction
+        public CursorPage<TransactionResponse> getAllTransactions(String after, int limit, CountMode countMode) {
+            CursorPage.checkLimit(limit);
+            List<TransactionRow> rows;
+            if (after == null || after.isBlank()) {
+                rows = transactionRepository.findPage(PageRequest.ofSize(limit + 1));
+            } else {
+                TransactionCursor cursor = cursorCodec.decode(after);
+                rows = transactionRepository.findPageAfter(cursor.createdAt(), cursor.id(), PageRequest.ofSize(limit + 1));
+            }
+            Long total = switch (countMode) {
+                case EXACT -> transactionRepository.count();
+                case ESTIMATE -> transactionRepository.estimateCount();
+                case NONE -> null;
+            };
+            return toPage(rows, limit, total);
+        }
+
+        // Rows are fetched with one extra row, which only tells whether a next page exists.
+        private CursorPage<TransactionResponse> toPage(List<TransactionRow> rows, int limit, Long total) {
+            String next = null;
+            if (rows.size() > limit) {
+                rows = rows.subList(0, limit);
+                next = cursorCodec.encode(TransactionCursor.of(rows.get(limit - 1)));
+            }
+            return new CursorPage<>(rows.stream().map(this::mapToDTO).toList(), next, total);
+        }
+
+        /**
+         * Streams the matching transactions as CSV in id order. Rows are read through a cursor
+         * and written one at a time, so heap use does not depend on how many rows match.
+         *
+         * @return the number of rows written, not counting the header
+         */
+        @ReadOnlyTransaction
+        public long exportTransactionsToCsv(TransactionExportFilter filter, Writer writer) {
+            return exportCsv(filter, writer, true);
+        }
+
+        /**
+         * Like {@link #exportTransactionsToCsv} without the header line, for one chunk of an
+         * export split across several calls.
+         */
+        @ReadOnlyTransaction
+        public long exportTransactionRowsToCsv(TransactionExportFilter filter, Writer writer) {
+            return exportCsv(filter, writer, false);
+        }
+
+        private long exportCsv(TransactionExportFilter filter, Writer writer, boolean header) {
+            TransactionCsvWriter csv = new TransactionCsvWriter(writer, exportProperties.getFlushRows());
+            if (header) {
+                csv.writeHeader();
+            }
+            transactionRowCursor.forEach(filter, row -> csv.write(mapToDTO(row)));
+            csv.flush();
+            return csv.getRows();
         }
 }
@@ -1,17 +1,18 @@
 package com.bankingapi.walletapi.startup;
 
-import com.bankingapi.walletapi.enums.TransactionType;
 import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.LedgerEntry;
 import com.bankingapi.walletapi.model.Transaction;
 import com.bankingapi.walletapi.model.User;
+import com.bankingapi.walletapi.money.Money;
 import com.bankingapi.walletapi.repository.BankAccountRepository;
 import com.bankingapi.walletapi.repository.TransactionRepository;
 import com.bankingapi.walletapi.repository.UserRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Component
 public class DataInitializer implements CommandLineRunner{
@@ -53,77 +54,52 @@ public class DataInitializer implements CommandLineRunner{
         account1.setUser(ella);
         account1.setAccountNumber("123456789");
         account1.setAccountType("CHECKING");
-        account1.setBalance(BigDecimal.valueOf(1000));
+        account1.setBalance(Money.of("1000.00"));
         account1 = bankAccountRepository.save(account1);
 
         BankAccount account2 = new BankAccount();
         account2.setUser(ella);
         account2.setAccountNumber("987654321");
         account2.setAccountType("SAVINGS");
-        account2.setBalance(BigDecimal.valueOf(500));
+        account2.setBalance(Money.of("500.00"));
         account2 = bankAccountRepository.save(account2);
 
         BankAccount account3 = new BankAccount();
         account3.setUser(john);
         account3.setAccountNumber("111111111");
         account3.setAccountType("CHECKING");
-        account3.setBalance(BigDecimal.valueOf(600));
+        account3.setBalance(Money.of("600.00"));
         account3 = bankAccountRepository.save(account3);
 
         //transactions
-        Transaction t1 = new Transaction();
-        t1.setSenderAccount(account2);
-        t1.setReceiverAccount(account1);
-        t1.setAmount(BigDecimal.valueOf(100));
-        t1.setTransactionType(TransactionType.DEBIT);
-        t1.setCreatedAt(LocalDateTime.now().minusDays(3));
-        t1.setDescription("Transfer to account #" + account1.getAccountNumber());
-        transactionRepository.save(t1);
-
-        Transaction t4 = new Transaction();
-        t4.setSenderAccount(account2);
-        t4.setReceiverAccount(account1);
-        t4.setAmount(BigDecimal.valueOf(100));
-        t4.setTransactionType(TransactionType.CREDIT);
-        t4.setCreatedAt(LocalDateTime.now().minusDays(3));
-        t4.setDescription("Transfer from account #" + account2.getAccountNumber());
-        transactionRepository.save(t4);
-
-        Transaction t2 = new Transaction();
-        t2.setSenderAccount(null);
-        t2.setReceiverAccount(account2);
-        t2.setAmount(BigDecimal.valueOf(200));
-        t2.setCreatedAt(LocalDateTime.now().minusDays(4));
-        t2.setTransactionType(TransactionType.CREDIT);
-        t2.setDescription("Deposit by Ella");
-        transactionRepository.save(t2);
-
-        Transaction t3 = new Transaction();
-        t3.setSenderAccount(account3);
-        t3.setReceiverAccount(null);
-        t3.setAmount(BigDecimal.valueOf(250));
-        t3.setCreatedAt(LocalDateTime.now().minusDays(3));
-        t3.setTransactionType(TransactionType.DEBIT);
-        t3.setDescription("Withdrawal by John");
-        transactionRepository.save(t3);
-
-        Transaction t5 = new Transaction();
-        t5.setSenderAccount(account3);
-        t5.setReceiverAccount(null);
-        t5.setAmount(BigDecimal.valueOf(100));
-        t5.setCreatedAt(LocalDateTime.now().minusDays(2));
-        t5.setTransactionType(TransactionType.DEBIT);
-        t5.setDescription("Another Withdrawal by John");
-        transactionRepository.save(t5);
-
-        Transaction t6 = new Transaction();
-        t6.setSenderAccount(null);
-        t6.setReceiverAccount(account3);
-        t6.setAmount(BigDecimal.valueOf(700));
-        t6.setCreatedAt(LocalDateTime.now().minusDays(1));
-        t6.setTransactionType(TransactionType.CREDIT);
-        t6.setDescription("Deposit by John");
-        transactionRepository.save(t6);
-    };
+        // Postings of one entry are saved together so the entry is persisted once.
+        LedgerEntry transfer = seedEntry(account2, account1, null, 3);
+        transactionRepository.saveAll(List.of(
+                seedPosting(transfer, account2, Money.of("-100.00")),
+                seedPosting(transfer, account1, Money.of("100.00"))));
+
+        transactionRepository.save(seedPosting(seedEntry(null, account2, "Deposit by Ella", 4), account2, Money.of("200.00")));
+        transactionRepository.save(seedPosting(seedEntry(account3, null, "Withdrawal by John", 3), account3, Money.of("-250.00")));
+        transactionRepository.save(seedPosting(seedEntry(account3, null, "Another Withdrawal by John", 2), account3, Money.of("-100.00")));
+        transactionRepository.save(seedPosting(seedEntry(null, account3, "Deposit by John", 1), account3, Money.of("700.00")));
+    }
+
+    private LedgerEntry seedEntry(BankAccount sender, BankAccount receiver, String description, int daysAgo) {
+        LedgerEntry entry = new LedgerEntry();
+        entry.setSenderAccount(sender);
+        entry.setReceiverAccount(receiver);
+        entry.setDescription(description);
+        entry.setCreatedAt(LocalDateTime.now().minusDays(daysAgo));
+        return entry;
+    }
+
+    private Transaction seedPosting(LedgerEntry entry, BankAccount account, Money amount) {
+        Transaction posting = new Transaction();
+        posting.setEntry(entry);
+        posting.setAccount(account);
+        posting.setCreatedAt(entry.getCreatedAt());
+        posting.setAmount(amount);
+        return posting;
+    }
 }
 
@@ -0,0 +1,29 @@
+package com.bankingapi.walletapi.startup;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates {@code journal_checkpoint}, the single-row table holding how far the
+ * {@link com.bankingapi.walletapi.journal.JournalApplier} has applied the journal, starting at 0.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+@ConditionalOnProperty(prefix = "wallet.journal", name = "enabled", havingValue = "true")
+public class JournalMigration implements SchemaMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JournalMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void migrate() {
+        jdbcTemplate.execute("create table if not exists journal_checkpoint (id integer primary key, applied_position bigint not null)");
+        jdbcTemplate.update("insert into journal_checkpoint (id, applied_position) values (1, 0) on conflict (id) do nothing");
+    }
+}
@@ -0,0 +1,84 @@
+package com.bankingapi.walletapi.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * One-off move of the old two-rows-per-transfer {@code transactions} table into the double-entry
+ * ledger. Each old row becomes an entry with a single posting under the same id, so ids already
+ * handed out to clients stay valid. The old table is kept as {@code transactions_legacy}.
+ * Copied postings have no balance_after; {@link com.bankingapi.walletapi.ledger.BalanceAfterBackfill}
+ * fills it in once the application is up, finding them through a partial index created here.
+ * Runs before {@link PartitionMigration} and {@link SequenceMigration} so the copied rows are
+ * partitioned and the sequences are positioned past their ids.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class LedgerMigration implements SchemaMigration {
+    private static final Logger logger = LoggerFactory.getLogger(LedgerMigration.class);
+
+    // The description is only kept when it differs from what LedgerService.describe derives.
+    private static final String COPY_ENTRIES_SQL = """
+            insert into ledger_entries (id, created_at, description, sender_account_id, receiver_account_id)
+            select t.id, coalesce(t.created_at, now()),
+                   nullif(t.description, case
+                       when t.transaction_type = 'DEBIT' and t.receiver_account_id is not null then 'Transfer from account #' || r.account_number
+                       when t.transaction_type = 'DEBIT' then 'Withdrawal from account #' || s.account_number
+                       when t.sender_account_id is not null then 'Transfer to account #' || s.account_number
+                       else 'Deposit to account #' || r.account_number end),
+                   t.sender_account_id, t.receiver_account_id
+            from transactions t
+            left join bank_accounts s on s.id = t.sender_account_id
+            left join bank_accounts r on r.id = t.receiver_account_id
+            where (case when t.transaction_type = 'DEBIT' then t.sender_account_id else t.receiver_account_id end) is not null
+            on conflict (id) do nothing
+            """;
+
+    private static final String COPY_POSTINGS_SQL = """
+            insert into ledger_postings (id, entry_id, account_id, created_at, amount, balance_after)
+            select t.id, t.id,
+                   case when t.transaction_type = 'DEBIT' then t.sender_account_id else t.receiver_account_id end,
+                   e.created_at,
+                   case when t.transaction_type = 'DEBIT' then -t.amount else t.amount end,
+                   null
+            from transactions t
+            join ledger_entries e on e.id = t.id
+            on conflict do nothing
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public LedgerMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void migrate() {
+        migrateIndexes();
+        String legacy = jdbcTemplate.queryForObject("select to_regclass('public.transactions')::text", String.class);
+        if (legacy == null) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            int entries = jdbcTemplate.update(COPY_ENTRIES_SQL);
+            int postings = jdbcTemplate.update(COPY_POSTINGS_SQL);
+            jdbcTemplate.execute("alter table transactions rename to transactions_legacy");
+            logger.info("Migrated {} transaction rows into ledger entries with {} postings", entries, postings);
+        });
+    }
+
+    private void migrateIndexes() {
+        jdbcTemplate.execute("create index if not exists idx_ledger_postings_unsettled on ledger_postings (account_id) "
+                + "where balance_after is null");
+        // Superseded by idx_ledger_postings_account_time, which leads with the same column.
+        jdbcTemplate.execute("drop index if exists idx_ledger_postings_account");
+    }
+}
@@ -0,0 +1,98 @@
+package com.bankingapi.walletapi.startup;
+
+import com.bankingapi.walletapi.ledger.LedgerProperties;
+import com.bankingapi.walletapi.ledger.PostingPartitions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * One-off conversion of {@code ledger_postings} into a table range-partitioned by month on
+ * created_at. Hibernate creates the plain table; this swaps it for a partitioned one with the
+ * same columns, copies the rows over and recreates the secondary indexes and foreign keys on the
+ * parent so every partition gets its own. The primary key becomes (id, created_at) because a
+ * partitioned table's unique keys must contain the partition key.
+ * Runs after {@link LedgerMigration} so migrated history is moved in the same pass, and like
+ * every {@link SchemaMigration} before the web server starts and anything else writes postings.
+ * The conversion holds the partition lock and checks again under it, so when several instances
+ * start at once only the first converts the table.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class PartitionMigration implements SchemaMigration {
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMigration.class);
+
+    private static final String TABLE = PostingPartitions.TABLE;
+    private static final String OLD_TABLE = TABLE + "_unpartitioned";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PostingPartitions postingPartitions;
+    private final LedgerProperties properties;
+
+    public PartitionMigration(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              PostingPartitions postingPartitions, LedgerProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.postingPartitions = postingPartitions;
+        this.properties = properties;
+    }
+
+    @Override
+    public void migrate() {
+        YearMonth current = YearMonth.now();
+        if (postingPartitions.isPartitioned()) {
+            postingPartitions.create(current, current.plusMonths(properties.getPartitionMonthsAhead()));
+            return;
+        }
+
+        long began = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            postingPartitions.lock();
+            if (postingPartitions.isPartitioned()) {
+                postingPartitions.create(current, current.plusMonths(properties.getPartitionMonthsAhead()));
+                return;
+            }
+
+            // created_at becomes part of the key, so rows from before the column existed take the entry's.
+            jdbcTemplate.update("update " + TABLE + " p set created_at = e.created_at from ledger_entries e "
+                    + "where e.id = p.entry_id and p.created_at is null");
+
+            List<String> indexes = jdbcTemplate.queryForList("select pg_get_indexdef(i.indexrelid) from pg_index i "
+                    + "where i.indrelid = ?::regclass and not i.indisprimary", String.class, TABLE);
+            List<String> foreignKeys = jdbcTemplate.queryForList("select 'alter table " + TABLE + " add constraint ' "
+                    + "|| quote_ident(conname) || ' ' || pg_get_constraintdef(oid) from pg_constraint "
+                    + "where conrelid = ?::regclass and contype = 'f'", String.class, TABLE);
+            String primaryKey = jdbcTemplate.queryForObject("select conname from pg_constraint "
+                    + "where conrelid = ?::regclass and contype = 'p'", String.class, TABLE);
+
+            jdbcTemplate.execute("alter table " + TABLE + " rename to " + OLD_TABLE);
+            jdbcTemplate.execute("alter table " + OLD_TABLE + " rename constraint " + primaryKey + " to " + OLD_TABLE + "_pkey");
+            jdbcTemplate.execute("create table " + TABLE + " (like " + OLD_TABLE + " including defaults) "
+                    + "partition by range (created_at)");
+            jdbcTemplate.execute("alter table " + TABLE + " alter column created_at set not null");
+            jdbcTemplate.execute("alter table " + TABLE + " add constraint " + primaryKey + " primary key (id, created_at)");
+            jdbcTemplate.execute("create table " + PostingPartitions.DEFAULT_PARTITION + " partition of " + TABLE + " default");
+
+            LocalDateTime earliest = jdbcTemplate.queryForObject("select min(created_at) from " + OLD_TABLE, LocalDateTime.class);
+            postingPartitions.create(earliest != null ? YearMonth.from(earliest) : current,
+                    current.plusMonths(properties.getPartitionMonthsAhead()));
+
+            int moved = jdbcTemplate.update("insert into " + TABLE + " select * from " + OLD_TABLE);
+            jdbcTemplate.execute("drop table " + OLD_TABLE);
+            indexes.forEach(jdbcTemplate::execute);
+            foreignKeys.forEach(jdbcTemplate::execute);
+            logger.info("Partitioned {} by month, moved {} postings", TABLE, moved);
+        });
+        logger.info("Partition migration took {} ms", (System.nanoTime() - began) / 1_000_000);
+    }
+}
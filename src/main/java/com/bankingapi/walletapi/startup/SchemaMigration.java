@@ -0,0 +1,11 @@
+package com.bankingapi.walletapi.startup;
+
+/**
+ * A one-off change to the schema or its data that must be in place before the application serves
+ * anything. Migrations run in {@link org.springframework.core.annotation.Order} order, see
+ * {@link SchemaMigrations}, and must be safe to run again on every start.
+ */
+public interface SchemaMigration {
+
+    void migrate();
+}
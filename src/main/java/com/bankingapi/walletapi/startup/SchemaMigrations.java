@@ -0,0 +1,32 @@
+package com.bankingapi.walletapi.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link SchemaMigration}s once every singleton has been created: after Hibernate has
+ * updated the schema, but before the web server starts accepting requests and before any
+ * runner, scheduler or ApplicationReadyEvent listener touches the tables. A failing migration
+ * fails startup.
+ */
+@Component
+public class SchemaMigrations implements SmartInitializingSingleton {
+    private static final Logger logger = LoggerFactory.getLogger(SchemaMigrations.class);
+
+    private final ObjectProvider<SchemaMigration> migrations;
+
+    public SchemaMigrations(ObjectProvider<SchemaMigration> migrations) {
+        this.migrations = migrations;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        migrations.orderedStream().forEach(migration -> {
+            logger.info("Running {}", migration.getClass().getSimpleName());
+            migration.migrate();
+        });
+    }
+}
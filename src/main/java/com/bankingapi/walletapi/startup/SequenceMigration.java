@@ -0,0 +1,54 @@
+package com.bankingapi.walletapi.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves tables created with identity ids over to the pooled sequences used by the entities.
+ * Hibernate creates the sequences starting at 1, so each one is advanced past the highest
+ * existing id (plus one allocation block). Like every {@link SchemaMigration} it runs before the
+ * web server starts, so before any new rows are written.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class SequenceMigration implements SchemaMigration {
+    private static final Logger logger = LoggerFactory.getLogger(SequenceMigration.class);
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "users", "users_seq",
+            "bank_accounts", "bank_accounts_seq",
+            "ledger_entries", "ledger_entries_seq",
+            "ledger_postings", "transactions_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SequenceMigration(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void migrate() {
+        SEQUENCES.forEach(this::migrate);
+    }
+
+    private void migrate(String table, String sequence) {
+        jdbcTemplate.execute("alter table " + table + " alter column id drop identity if exists");
+        jdbcTemplate.execute("alter table " + table + " alter column id drop default");
+
+        Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+        Long next = jdbcTemplate.queryForObject(
+                "select setval('" + sequence + "', greatest((select last_value from " + sequence + "), ?))",
+                Long.class, maxId + ALLOCATION_SIZE);
+
+        logger.info("Sequence {} positioned at {} for table {} (max id {})", sequence, next, table, maxId);
+    }
+}
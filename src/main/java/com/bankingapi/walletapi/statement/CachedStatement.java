@@ -0,0 +1,10 @@
+package com.bankingapi.walletapi.statement;
+
+import java.nio.file.Path;
+
+/**
+ * A rendered statement on disk. The ETag is a hash of the file's bytes, so it is a strong
+ * validator: a re-rendered statement gets a new one even when only the PDF's timestamps differ.
+ */
+public record CachedStatement(Path file, String etag, long size) {
+}
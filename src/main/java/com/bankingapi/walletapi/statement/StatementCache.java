@@ -0,0 +1,247 @@
+package com.bankingapi.walletapi.statement;
+
+import com.bankingapi.walletapi.bulkhead.Bulkhead;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.service.BalanceHistoryService;
+import com.bankingapi.walletapi.service.PdfStatementService;
+import com.bankingapi.walletapi.service.StatementPdf;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Rendered monthly statements, kept as files in a size-bounded directory. A statement is keyed by
+ * account, month and a version of the postings it shows: their count and highest id in the month
+ * plus the opening balance, which covers everything posted before the month. Any posting that
+ * would change the document changes the key, so entries never need invalidating; stale ones age
+ * out of the LRU. The version and the document are both read on the primary, so a lagging
+ * replica cannot file an old document under a new key. Concurrent requests for the same missing
+ * statement share a single render.
+ */
+@Component
+public class StatementCache {
+    private static final Logger logger = LoggerFactory.getLogger(StatementCache.class);
+
+    private static final String SUFFIX = ".pdf";
+
+    private static final String VERSION_SQL = """
+            select count(*) as postings, coalesce(max(id), 0) as last_id from ledger_postings
+            where account_id = ? and created_at >= ? and created_at < ?
+            """;
+
+    private final PdfStatementService pdfStatementService;
+    private final BalanceHistoryService balanceHistoryService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Bulkhead reportingBulkhead;
+    private final Path directory;
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter coalesced;
+
+    // Access-ordered, so iteration starts at the least recently served statement.
+    private final LinkedHashMap<String, CachedStatement> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, CompletableFuture<CachedStatement>> rendering = new ConcurrentHashMap<>();
+    private long totalBytes;
+
+    @Autowired
+    public StatementCache(PdfStatementService pdfStatementService, BalanceHistoryService balanceHistoryService,
+                          JdbcTemplate jdbcTemplate, @Qualifier("reportingBulkhead") Bulkhead reportingBulkhead,
+                          StatementCacheProperties properties, MeterRegistry meterRegistry) throws IOException {
+        this.pdfStatementService = pdfStatementService;
+        this.balanceHistoryService = balanceHistoryService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.reportingBulkhead = reportingBulkhead;
+        this.directory = Files.createDirectories(Paths.get(properties.getDirectory()));
+        this.maxBytes = properties.getMaxSize().toBytes();
+        this.hits = meterRegistry.counter("wallet.statement.cache", "result", "hit");
+        this.misses = meterRegistry.counter("wallet.statement.cache", "result", "miss");
+        this.coalesced = meterRegistry.counter("wallet.statement.cache", "result", "coalesced");
+        load();
+    }
+
+    /**
+     * The account's statement for the month, rendered on the reporting bulkhead when it is not
+     * cached yet. Looking up the version checks the account exists before anything is rendered.
+     */
+    public CompletableFuture<CachedStatement> monthly(Long accountId, YearMonth month) {
+        String key = key(accountId, month);
+        CachedStatement cached = get(key);
+        if (cached != null) {
+            hits.increment();
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<CachedStatement> render = new CompletableFuture<>();
+        CompletableFuture<CachedStatement> running = rendering.putIfAbsent(key, render);
+        if (running != null) {
+            coalesced.increment();
+            return running;
+        }
+        // A render of the same key may have finished between the lookup and claiming it.
+        cached = get(key);
+        if (cached != null) {
+            rendering.remove(key, render);
+            render.complete(cached);
+            return render;
+        }
+
+        misses.increment();
+        try {
+            StatementPdf statement = pdfStatementService.monthlyStatement(accountId, month);
+            reportingBulkhead.submit(() -> store(key, statement)).whenComplete((stored, failure) -> {
+                rendering.remove(key, render);
+                if (failure != null) {
+                    render.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure);
+                } else {
+                    render.complete(stored);
+                }
+            });
+        } catch (RuntimeException e) {
+            rendering.remove(key, render);
+            render.completeExceptionally(e);
+            throw e;
+        }
+        return render;
+    }
+
+    private String key(Long accountId, YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        Money opening = balanceHistoryService.balanceBefore(accountId, start);
+        String version = jdbcTemplate.queryForObject(VERSION_SQL,
+                (rs, rowNum) -> rs.getLong("postings") + ":" + rs.getLong("last_id"), accountId, start, end);
+        return sha256(accountId + "|" + month + "|" + version + "|" + opening, 32);
+    }
+
+    private CachedStatement store(String key, StatementPdf statement) {
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(directory, key, ".tmp");
+            MessageDigest digest = digest();
+            try (OutputStream out = new DigestOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)), digest)) {
+                statement.writeTo(out);
+            }
+            String etag = HexFormat.of().formatHex(digest.digest(), 0, 16);
+            Path file = directory.resolve(key + "." + etag + SUFFIX);
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            CachedStatement stored = new CachedStatement(file, etag, Files.size(file));
+            put(key, stored);
+            return stored;
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw new UncheckedIOException("Failed to cache statement", e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temporary);
+            throw e;
+        }
+    }
+
+    private synchronized CachedStatement get(String key) {
+        CachedStatement statement = entries.get(key);
+        if (statement != null && !Files.exists(statement.file())) {
+            entries.remove(key);
+            totalBytes -= statement.size();
+            return null;
+        }
+        return statement;
+    }
+
+    private synchronized void put(String key, CachedStatement statement) {
+        CachedStatement replaced = entries.put(key, statement);
+        if (replaced != null) {
+            totalBytes -= replaced.size();
+            if (!replaced.file().equals(statement.file())) {
+                deleteQuietly(replaced.file());
+            }
+        }
+        totalBytes += statement.size();
+        Iterator<CachedStatement> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            CachedStatement evicted = eldest.next();
+            if (evicted == statement) {
+                break;
+            }
+            eldest.remove();
+            totalBytes -= evicted.size();
+            deleteQuietly(evicted.file());
+        }
+    }
+
+    // Statements survive restarts; their file names carry the key and the ETag.
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.toList();
+        }
+        files.stream().filter(file -> file.getFileName().toString().endsWith(".tmp")).forEach(StatementCache::deleteQuietly);
+        files.stream()
+                .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                .sorted(Comparator.comparing(file -> file.toFile().lastModified()))
+                .forEach(file -> {
+                    String name = file.getFileName().toString();
+                    String[] parts = name.substring(0, name.length() - SUFFIX.length()).split("\\.");
+                    if (parts.length == 2) {
+                        put(parts[0], new CachedStatement(file, parts[1], file.toFile().length()));
+                    } else {
+                        deleteQuietly(file);
+                    }
+                });
+        logger.info("Statement cache in {} holds {} statements, {} bytes", directory, entries.size(), totalBytes);
+    }
+
+    private static String sha256(String value, int hexChars) {
+        byte[] hash = digest().digest(value.getBytes(StandardCharsets.UTF_8));
+        return HexFormat.of().formatHex(hash).substring(0, hexChars);
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete cached statement {}", file, e);
+        }
+    }
+}
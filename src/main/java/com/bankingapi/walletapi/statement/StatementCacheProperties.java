@@ -0,0 +1,15 @@
+package com.bankingapi.walletapi.statement;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.statement-cache")
+public class StatementCacheProperties {
+
+    private String directory = System.getProperty("java.io.tmpdir") + "/wallet-statements";
+
+    // Least recently served statements are deleted once the directory holds more than this.
+    private DataSize maxSize = DataSize.ofGigabytes(1);
+}
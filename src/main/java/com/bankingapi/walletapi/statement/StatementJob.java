@@ -0,0 +1,220 @@
+package com.bankingapi.walletapi.statement;
+
+import com.bankingapi.walletapi.dto.TransactionResponse;
+import com.bankingapi.walletapi.enums.TransactionType;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.service.BalanceHistoryService;
+import com.bankingapi.walletapi.service.PdfStatementService;
+import com.bankingapi.walletapi.service.TransactionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders the monthly statement of every account into one ZIP archive per month. Accounts are
+ * walked in id order in chunks; each chunk's closing balances and postings are loaded from the
+ * primary with one query each, then its statements are rendered on a fork-join pool and written
+ * to the archive in account order. The archive is written under a temporary name and only moved into place once
+ * every statement rendered. A failed statement is recorded and the rest of the run carries on,
+ * but the run then ends failed without an archive, so the scheduled check runs the month again.
+ */
+@Component
+public class StatementJob {
+    private static final Logger logger = LoggerFactory.getLogger(StatementJob.class);
+
+    private final BankAccountRepository bankAccountRepository;
+    private final BalanceHistoryService balanceHistoryService;
+    private final TransactionService transactionService;
+    private final PdfStatementService pdfStatementService;
+    private final StatementJobProperties properties;
+    private final Counter renderedStatements;
+    private final Counter failedStatements;
+    // Runs the scheduled checks and the jobs themselves, so only one job runs at a time.
+    private final ScheduledExecutorService executor;
+
+    private volatile StatementJobRun current;
+
+    @Autowired
+    public StatementJob(BankAccountRepository bankAccountRepository, BalanceHistoryService balanceHistoryService,
+                        TransactionService transactionService, PdfStatementService pdfStatementService,
+                        StatementJobProperties properties, MeterRegistry meterRegistry) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.balanceHistoryService = balanceHistoryService;
+        this.transactionService = transactionService;
+        this.pdfStatementService = pdfStatementService;
+        this.properties = properties;
+        this.renderedStatements = meterRegistry.counter("wallet.statement.job.statements", "result", "rendered");
+        this.failedStatements = meterRegistry.counter("wallet.statement.job.statements", "result", "failed");
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statement-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (properties.isScheduled()) {
+            long interval = properties.getCheckInterval().toMillis();
+            executor.scheduleWithFixedDelay(this::runMonthEndQuietly, interval, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Starts rendering the statements of {@code month} in the background, unless a run is in
+     * progress already, in which case that run is returned.
+     */
+    public synchronized StatementJobStatus submit(YearMonth month) {
+        StatementJobRun running = current;
+        if (running != null && running.isRunning()) {
+            return running.status();
+        }
+        StatementJobRun run = new StatementJobRun(month, archive(month), properties.getFailuresShown());
+        current = run;
+        executor.execute(() -> run(run));
+        return run.status();
+    }
+
+    /**
+     * The run in progress or the last one, or null if none ran since startup.
+     */
+    public StatementJobStatus status() {
+        StatementJobRun run = current;
+        return run != null ? run.status() : null;
+    }
+
+    private Path archive(YearMonth month) {
+        return Paths.get(properties.getOutputDirectory()).resolve("statements-" + month + ".zip");
+    }
+
+    private void runMonthEndQuietly() {
+        try {
+            // Postings dated in the last month may still be committing for a while after it ends.
+            YearMonth closed = YearMonth.from(LocalDateTime.now().minus(properties.getSettleLag())).minusMonths(1);
+            if (!Files.exists(archive(closed))) {
+                submit(closed);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to start the month-end statement job, will retry", e);
+        }
+    }
+
+    private void run(StatementJobRun run) {
+        YearMonth month = run.month();
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+        Path temporary = run.archive().resolveSibling(run.archive().getFileName() + ".tmp");
+        ForkJoinPool workers = new ForkJoinPool(properties.getParallelism());
+        logger.info("Rendering {} statements into {}", month, run.archive());
+        try {
+            Files.createDirectories(run.archive().getParent());
+            try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                long after = 0;
+                List<Long> accountIds;
+                while (!(accountIds = bankAccountRepository.findIdPageCreatedBefore(after, end,
+                        properties.getChunkSize())).isEmpty()) {
+                    after = accountIds.get(accountIds.size() - 1);
+                    writeChunk(run, accountIds, start, end, workers, zip);
+                }
+            }
+            long failed = run.status().failed();
+            if (failed > 0) {
+                throw new IllegalStateException(failed + " statements failed to render, the archive was not written");
+            }
+            Files.move(temporary, run.archive(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            run.completed();
+            StatementJobStatus status = run.status();
+            logger.info("Rendered {} {} statements ({} failed) at {} per second", status.rendered(), month,
+                    status.failed(), String.format("%.1f", status.statementsPerSecond()));
+        } catch (IOException | RuntimeException e) {
+            run.aborted(e);
+            logger.error("Statement job for {} failed", month, e);
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    private void writeChunk(StatementJobRun run, List<Long> accountIds, LocalDateTime start, LocalDateTime end,
+                            ForkJoinPool workers, ZipOutputStream zip) throws IOException {
+        Map<Long, Money> closingBalances = balanceHistoryService.balancesBefore(accountIds, end);
+        Map<Long, List<TransactionResponse>> histories = transactionService.getAccountHistories(accountIds, start, end);
+
+        List<CompletableFuture<byte[]>> statements = accountIds.stream()
+                .map(accountId -> CompletableFuture.supplyAsync(() -> render(accountId, run.month(),
+                        closingBalances.get(accountId), histories.getOrDefault(accountId, List.of())), workers))
+                .toList();
+        for (int i = 0; i < accountIds.size(); i++) {
+            Long accountId = accountIds.get(i);
+            byte[] pdf;
+            try {
+                pdf = statements.get(i).join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                run.failed(accountId, cause);
+                failedStatements.increment();
+                logger.warn("Failed to render the {} statement of account {}", run.month(), accountId, cause);
+                continue;
+            }
+            zip.putNextEntry(new ZipEntry("statement-" + accountId + "-" + run.month() + ".pdf"));
+            zip.write(pdf);
+            zip.closeEntry();
+            run.rendered();
+            renderedStatements.increment();
+        }
+    }
+
+    private byte[] render(Long accountId, YearMonth month, Money closingBalance, List<TransactionResponse> transactions) {
+        Money openingBalance = closingBalance;
+        for (TransactionResponse transaction : transactions) {
+            openingBalance = transaction.getTransactionType() == TransactionType.DEBIT
+                    ? openingBalance.plus(transaction.getAmount())
+                    : openingBalance.minus(transaction.getAmount());
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            pdfStatementService.monthlyStatement(accountId, month, openingBalance, closingBalance, transactions)
+                    .writeTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
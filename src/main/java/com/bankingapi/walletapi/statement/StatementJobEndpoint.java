@@ -0,0 +1,51 @@
+package com.bankingapi.walletapi.statement;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.DateTimeException;
+import java.time.YearMonth;
+
+/**
+ * {@code /actuator/statementjob}: GET shows the progress, throughput and failures of the current
+ * or last month-end statement run; POST starts one, for the last closed month unless a year and
+ * month are given.
+ */
+@Component
+@Endpoint(id = "statementjob")
+public class StatementJobEndpoint {
+
+    private final StatementJob statementJob;
+
+    @Autowired
+    public StatementJobEndpoint(StatementJob statementJob) {
+        this.statementJob = statementJob;
+    }
+
+    @ReadOperation
+    public StatementJobStatus status() {
+        return statementJob.status();
+    }
+
+    @WriteOperation
+    public StatementJobStatus start(@Nullable Integer year, @Nullable Integer month) {
+        if (year == null && month == null) {
+            return statementJob.submit(YearMonth.now().minusMonths(1));
+        }
+        if (year == null || month == null) {
+            throw new InvalidEndpointRequestException("Pass both year and month, or neither", "year and month go together");
+        }
+        YearMonth period;
+        try {
+            period = YearMonth.of(year, month);
+        } catch (DateTimeException e) {
+            throw new InvalidEndpointRequestException("Invalid statement month: " + e.getMessage(), "invalid year or month");
+        }
+        return statementJob.submit(period);
+    }
+}
@@ -0,0 +1,29 @@
+package com.bankingapi.walletapi.statement;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "wallet.statement-job")
+public class StatementJobProperties {
+
+    // When set, every check runs the job for the last closed month unless its archive exists.
+    private boolean scheduled = false;
+
+    private Duration checkInterval = Duration.ofHours(1);
+
+    // How long after a month ends the scheduled run waits for its late postings and checkpoints.
+    private Duration settleLag = Duration.ofHours(2);
+
+    private String outputDirectory = "data/statements";
+
+    // Accounts whose balances and postings are loaded together.
+    private int chunkSize = 500;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    // Failures kept for the actuator endpoint; all of them are logged.
+    private int failuresShown = 50;
+}
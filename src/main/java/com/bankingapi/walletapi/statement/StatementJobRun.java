@@ -0,0 +1,73 @@
+package com.bankingapi.walletapi.statement;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one month-end statement run. Updated by the job, read by the actuator endpoint.
+ */
+class StatementJobRun {
+
+    private final YearMonth month;
+    private final Path archive;
+    private final int failuresShown;
+    private final Instant startedAt = Instant.now();
+    private final AtomicLong rendered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<StatementJobStatus.Failure> failures = new ArrayList<>();
+    private volatile Instant finishedAt;
+    private volatile StatementJobStatus.State state = StatementJobStatus.State.RUNNING;
+    private volatile String error;
+
+    StatementJobRun(YearMonth month, Path archive, int failuresShown) {
+        this.month = month;
+        this.archive = archive;
+        this.failuresShown = failuresShown;
+    }
+
+    YearMonth month() {
+        return month;
+    }
+
+    Path archive() {
+        return archive;
+    }
+
+    boolean isRunning() {
+        return state == StatementJobStatus.State.RUNNING;
+    }
+
+    void rendered() {
+        rendered.incrementAndGet();
+    }
+
+    synchronized void failed(Long accountId, Throwable failure) {
+        failed.incrementAndGet();
+        if (failures.size() < failuresShown) {
+            failures.add(new StatementJobStatus.Failure(accountId, String.valueOf(failure.getMessage())));
+        }
+    }
+
+    void completed() {
+        finishedAt = Instant.now();
+        state = StatementJobStatus.State.COMPLETED;
+    }
+
+    void aborted(Throwable failure) {
+        error = String.valueOf(failure.getMessage());
+        finishedAt = Instant.now();
+        state = StatementJobStatus.State.FAILED;
+    }
+
+    synchronized StatementJobStatus status() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+        return new StatementJobStatus(month, state, startedAt, finishedAt, rendered.get(), failed.get(),
+                rendered.get() / seconds, archive.toString(), List.copyOf(failures), error);
+    }
+}
@@ -0,0 +1,20 @@
+package com.bankingapi.walletapi.statement;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Snapshot of a month-end statement run, as shown by the {@code statementjob} actuator endpoint.
+ */
+public record StatementJobStatus(YearMonth month, State state, Instant startedAt, Instant finishedAt, long rendered,
+                                 long failed, double statementsPerSecond, String archive, List<Failure> failures,
+                                 String error) {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    public record Failure(Long accountId, String message) {
+    }
+}
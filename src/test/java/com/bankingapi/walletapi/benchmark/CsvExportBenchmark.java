@@ -0,0 +1,120 @@
+package com.bankingapi.walletapi.benchmark;
+
+import com.bankingapi.walletapi.export.TransactionExportFilter;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.service.TransactionService;
+import com.bankingapi.walletapi.support.TestAccounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Rows/sec and peak heap of the CSV export of one account while its history grows. The export
+ * streams through a cursor, so the peak heap should stay flat as the row count goes up.
+ * Run with {@code ./mvnw test -Dtest=CsvExportBenchmark -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class CsvExportBenchmark {
+
+    private static final int[] ROW_STEPS = Arrays.stream(System.getProperty("benchmark.rows", "10000,100000,1000000")
+            .split(",")).mapToInt(Integer::parseInt).toArray();
+
+    private static final String SEED_SQL = """
+            with e as (
+                insert into ledger_entries (id, created_at, receiver_account_id)
+                select nextval('ledger_entries_seq'), ?::timestamp - g * interval '1 second', ?
+                from generate_series(1, ?) g
+                returning id, created_at, receiver_account_id)
+            insert into ledger_postings (id, entry_id, account_id, created_at, amount)
+            select nextval('transactions_seq'), e.id, e.receiver_account_id, e.created_at, 1.00 from e
+            """;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportHeapIsIndependentOfRowCount() {
+        LocalDateTime now = LocalDateTime.now();
+        Long accountId = testAccounts.createAccount("CSV", Money.of("1000.00"), now.minusYears(1));
+        TransactionExportFilter filter = new TransactionExportFilter(accountId, null, null);
+
+        System.out.printf("[%s]%n", getClass().getSimpleName());
+        int seeded = 0;
+        long firstPeak = 0;
+        long lastPeak = 0;
+        for (int step : ROW_STEPS) {
+            jdbcTemplate.update(SEED_SQL, now.minusSeconds(seeded), accountId, step - seeded);
+            seeded = step;
+
+            transactionService.exportTransactionsToCsv(filter, Writer.nullWriter());
+            System.gc();
+            resetHeapPeak();
+            CountingWriter out = new CountingWriter();
+            long began = System.nanoTime();
+            long rows = transactionService.exportTransactionsToCsv(filter, out);
+            double seconds = (System.nanoTime() - began) / 1_000_000_000.0;
+            long peak = heapPeak();
+
+            assertEquals(seeded, rows);
+            System.out.printf("rows=%d rows/sec=%.0f MB/sec=%.1f peakHeap=%d MB%n", rows, rows / seconds,
+                    out.chars / seconds / 1_000_000, peak / 1_000_000);
+            if (firstPeak == 0) {
+                firstPeak = peak;
+            }
+            lastPeak = peak;
+        }
+
+        assertTrue(lastPeak < firstPeak * 2 + 64_000_000, "export heap should not grow with the row count");
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+    }
+
+    private static void resetHeapPeak() {
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    private static long heapPeak() {
+        return heapPools().stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+    }
+
+    private static class CountingWriter extends Writer {
+        long chars;
+
+        @Override
+        public void write(char[] buffer, int offset, int length) {
+            chars += length;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.bankingapi.walletapi.benchmark;
+
+import com.bankingapi.walletapi.dto.TransferRequest;
+import com.bankingapi.walletapi.model.User;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.service.TransactionService;
+import com.bankingapi.walletapi.support.TestAccounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Rows and bytes written per transfer by the double-entry ledger, next to the same transfers in
+ * the old layout of two full {@code transactions} rows. Sizes are the tuple sizes reported by
+ * {@code pg_column_size}; the old rows are rebuilt from the new ones rather than written.
+ * Run with {@code ./mvnw test -Dtest=LedgerWriteVolumeBenchmark -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class LedgerWriteVolumeBenchmark {
+
+    private static final int TRANSFERS = Integer.getInteger("benchmark.transfers", 1000);
+    private static final Money AMOUNT = Money.of("1.25");
+
+    private static final String ENTRY_VOLUME_SQL = """
+            select count(*) as row_count, coalesce(sum(pg_column_size(e.*)), 0) as bytes
+            from ledger_entries e where e.sender_account_id = ? and e.receiver_account_id = ?
+            """;
+
+    private static final String POSTING_VOLUME_SQL = """
+            select count(*) as row_count, coalesce(sum(pg_column_size(p.*)), 0) as bytes
+            from ledger_postings p join ledger_entries e on e.id = p.entry_id
+            where e.sender_account_id = ? and e.receiver_account_id = ?
+            """;
+
+    private static final String LEGACY_VOLUME_SQL = """
+            select count(*) as row_count, coalesce(sum(pg_column_size(row(
+                       p.id, abs(p.amount), e.created_at,
+                       case when p.amount < 0 then 'Transfer from account #' || r.account_number
+                            else 'Transfer to account #' || s.account_number end,
+                       e.sender_account_id, e.receiver_account_id,
+                       case when p.amount < 0 then 'DEBIT' else 'CREDIT' end))), 0) as bytes
+            from ledger_postings p
+            join ledger_entries e on e.id = p.entry_id
+            join bank_accounts s on s.id = e.sender_account_id
+            join bank_accounts r on r.id = e.receiver_account_id
+            where e.sender_account_id = ? and e.receiver_account_id = ?
+            """;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reportsRowsAndBytesPerTransfer() {
+        User user = testAccounts.createUser(LocalDateTime.now());
+        Long senderId = testAccounts.createAccount(user, "LEDGER-A", Money.of("1000000.00"));
+        Long receiverId = testAccounts.createAccount(user, "LEDGER-B", Money.of("1000000.00"));
+
+        for (int i = 0; i < TRANSFERS; i++) {
+            transactionService.transferFunds(new TransferRequest(senderId, receiverId, AMOUNT, "benchmark"));
+        }
+
+        Map<String, Object> entries = jdbcTemplate.queryForMap(ENTRY_VOLUME_SQL, senderId, receiverId);
+        Map<String, Object> postings = jdbcTemplate.queryForMap(POSTING_VOLUME_SQL, senderId, receiverId);
+        Map<String, Object> legacy = jdbcTemplate.queryForMap(LEGACY_VOLUME_SQL, senderId, receiverId);
+
+        long ledgerRows = count(entries, "row_count") + count(postings, "row_count");
+        long ledgerBytes = count(entries, "bytes") + count(postings, "bytes");
+        long legacyRows = count(legacy, "row_count");
+        long legacyBytes = count(legacy, "bytes");
+
+        System.out.printf("[%s] transfers=%d%n", getClass().getSimpleName(), TRANSFERS);
+        System.out.printf("before (transactions):        rows/transfer=%.2f bytes/transfer=%.1f%n",
+                (double) legacyRows / TRANSFERS, (double) legacyBytes / TRANSFERS);
+        System.out.printf("after (entries + postings):   rows/transfer=%.2f bytes/transfer=%.1f%n",
+                (double) ledgerRows / TRANSFERS, (double) ledgerBytes / TRANSFERS);
+
+        assertEquals(TRANSFERS, count(entries, "row_count"), "one entry per transfer");
+        assertEquals(2L * TRANSFERS, count(postings, "row_count"), "a debit and a credit posting per transfer");
+    }
+
+    private static long count(Map<String, Object> row, String column) {
+        return ((Number) row.get(column)).longValue();
+    }
+}
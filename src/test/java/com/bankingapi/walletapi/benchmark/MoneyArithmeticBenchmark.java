@@ -0,0 +1,120 @@
+package com.bankingapi.walletapi.benchmark;
+
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.service.AccountRules;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the withdraw/deposit/transfer balance arithmetic on {@link BigDecimal} (the previous
+ * implementation, copied below) with {@link Money}. Run with
+ * {@code ./mvnw test -Dtest=MoneyArithmeticBenchmark -Dbenchmark=true}; the GC profiler reports
+ * bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class MoneyArithmeticBenchmark {
+
+    private static final BigDecimal MIN_BALANCE = new BigDecimal("50.00");
+    private static final BigDecimal MAX_OVERDRAFT = new BigDecimal("-100.00");
+
+    private BigDecimal decimalSender;
+    private BigDecimal decimalReceiver;
+    private BigDecimal decimalAmount;
+
+    private Money moneySender;
+    private Money moneyReceiver;
+    private Money moneyAmount;
+
+    @Setup
+    public void setUp() {
+        decimalSender = new BigDecimal("1000000.00");
+        decimalReceiver = new BigDecimal("1000000.00");
+        decimalAmount = new BigDecimal("12.34");
+        moneySender = Money.of(decimalSender);
+        moneyReceiver = Money.of(decimalReceiver);
+        moneyAmount = Money.of(decimalAmount);
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalTransfer() {
+        if (decimalSender.compareTo(decimalAmount) < 0) {
+            throw new IllegalStateException();
+        }
+        decimalSender = decimalSender.subtract(decimalAmount);
+        decimalReceiver = decimalReceiver.add(decimalAmount);
+        // Move the money back so the balances stay in range across iterations.
+        decimalSender = decimalSender.add(decimalAmount);
+        decimalReceiver = decimalReceiver.subtract(decimalAmount);
+        return decimalReceiver;
+    }
+
+    @Benchmark
+    public Money moneyTransfer() {
+        AccountRules.checkTransfer(moneySender, moneyAmount);
+        moneySender = moneySender.minus(moneyAmount);
+        moneyReceiver = moneyReceiver.plus(moneyAmount);
+        moneySender = moneySender.plus(moneyAmount);
+        moneyReceiver = moneyReceiver.minus(moneyAmount);
+        return moneyReceiver;
+    }
+
+    @Benchmark
+    public BigDecimal bigDecimalWithdrawAndDeposit() {
+        if (decimalSender.compareTo(decimalAmount) < 0) {
+            throw new IllegalStateException();
+        }
+        BigDecimal projected = decimalSender.subtract(decimalAmount);
+        if (projected.compareTo(MAX_OVERDRAFT) < 0) {
+            throw new IllegalStateException();
+        }
+        boolean alert = projected.compareTo(MIN_BALANCE) < 0 && projected.compareTo(BigDecimal.ZERO) >= 0;
+        boolean freeze = projected.compareTo(BigDecimal.ZERO) < 0 && projected.compareTo(MAX_OVERDRAFT) <= 0;
+        if (alert || freeze) {
+            throw new IllegalStateException();
+        }
+        decimalSender = projected.add(decimalAmount);
+        return decimalSender;
+    }
+
+    @Benchmark
+    public Money moneyWithdrawAndDeposit() {
+        Money projected = AccountRules.checkWithdrawal(1L, moneySender, false, moneyAmount);
+        if (AccountRules.shouldAutoFreeze(projected)) {
+            throw new IllegalStateException();
+        }
+        moneySender = projected.plus(moneyAmount);
+        return moneySender;
+    }
+
+    @Test
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MoneyArithmeticBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
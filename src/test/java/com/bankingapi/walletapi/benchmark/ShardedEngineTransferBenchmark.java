@@ -0,0 +1,23 @@
+package com.bankingapi.walletapi.benchmark;
+
+import com.bankingapi.walletapi.engine.BalanceEngine;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Same workload as {@link TransferContentionBenchmark}, run against the in-memory sharded engine
+ * so the two reports can be compared side by side.
+ */
+@SpringBootTest(properties = "wallet.engine.enabled=true")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class ShardedEngineTransferBenchmark extends TransferContentionBenchmark {
+
+    @Autowired
+    private BalanceEngine balanceEngine;
+
+    @Override
+    protected void awaitPersisted() {
+        balanceEngine.drain();
+    }
+}
@@ -0,0 +1,93 @@
+package com.bankingapi.walletapi.benchmark;
+
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.service.PdfStatementService;
+import com.bankingapi.walletapi.support.TestAccounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Latency of a one-month statement while the account's older history grows. The month always
+ * holds the same rows, so with the range query the latency should stay flat.
+ * Run with {@code ./mvnw test -Dtest=StatementRangeBenchmark -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class StatementRangeBenchmark {
+
+    private static final int[] HISTORY_STEPS = Arrays.stream(System.getProperty("benchmark.history", "0,10000,100000,500000")
+            .split(",")).mapToInt(Integer::parseInt).toArray();
+    private static final int ROWS_IN_RANGE = Integer.getInteger("benchmark.rangeRows", 50);
+    private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+    // Entries and postings are generated in SQL so seeding a large history takes seconds.
+    private static final String SEED_SQL = """
+            with e as (
+                insert into ledger_entries (id, created_at, receiver_account_id)
+                select nextval('ledger_entries_seq'), ?::timestamp - g * interval '1 minute', ?
+                from generate_series(1, ?) g
+                returning id, created_at, receiver_account_id)
+            insert into ledger_postings (id, entry_id, account_id, created_at, amount)
+            select nextval('transactions_seq'), e.id, e.receiver_account_id, e.created_at, 1.00 from e
+            """;
+
+    @Autowired
+    private PdfStatementService pdfStatementService;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void statementLatencyIsIndependentOfHistory() {
+        LocalDateTime to = LocalDateTime.now();
+        LocalDateTime from = to.minusDays(30);
+        Long accountId = testAccounts.createAccount("STMT", Money.of("1000.00"), from.minusYears(10));
+        seed(accountId, to, ROWS_IN_RANGE);
+
+        System.out.printf("[%s] rowsInRange=%d iterations=%d%n", getClass().getSimpleName(), ROWS_IN_RANGE, ITERATIONS);
+        int history = 0;
+        double first = 0;
+        double last = 0;
+        for (int step : HISTORY_STEPS) {
+            // Older history lands before the statement range, one minute apart.
+            seed(accountId, from.minusMinutes(history), step - history);
+            history = step;
+
+            for (int i = 0; i < 3; i++) {
+                pdfStatementService.generateStatementPdf(accountId, from, to);
+            }
+            long[] latencies = new long[ITERATIONS];
+            for (int i = 0; i < ITERATIONS; i++) {
+                long began = System.nanoTime();
+                pdfStatementService.generateStatementPdf(accountId, from, to);
+                latencies[i] = System.nanoTime() - began;
+            }
+            Arrays.sort(latencies);
+            double p50 = latencies[ITERATIONS / 2] / 1_000_000.0;
+            System.out.printf("history=%d p50=%.2f ms max=%.2f ms%n", history, p50, latencies[ITERATIONS - 1] / 1_000_000.0);
+            if (first == 0) {
+                first = p50;
+            }
+            last = p50;
+        }
+
+        assertTrue(last < first * 3 + 5, "statement latency should not grow with history");
+    }
+
+    private void seed(Long accountId, LocalDateTime newest, int rows) {
+        if (rows > 0) {
+            jdbcTemplate.update(SEED_SQL, newest, accountId, rows);
+        }
+    }
+}
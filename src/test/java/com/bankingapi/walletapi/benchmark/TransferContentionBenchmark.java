@@ -0,0 +1,133 @@
+package com.bankingapi.walletapi.benchmark;
+
+import com.bankingapi.walletapi.dto.TransferRequest;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.User;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.service.TransactionService;
+import com.bankingapi.walletapi.support.TestAccounts;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.PessimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers a small set of hot accounts with concurrent transfers in both directions.
+ * Run with {@code ./mvnw test -Dtest='*TransferBenchmark,TransferContentionBenchmark' -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class TransferContentionBenchmark {
+
+    private static final int ACCOUNTS = Integer.getInteger("benchmark.accounts", 4);
+    private static final int THREADS = Integer.getInteger("benchmark.threads", 16);
+    private static final int TRANSFERS_PER_THREAD = Integer.getInteger("benchmark.transfers", 500);
+    private static final Money OPENING_BALANCE = Money.of("1000000.00");
+    private static final Money AMOUNT = Money.of("1.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    @Test
+    void lockedTransfersConserveMoneyUnderContention() throws Exception {
+        List<Long> accountIds = createHotAccounts();
+        Money totalBefore = totalBalance(accountIds);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        long[][] latencies = new long[THREADS][TRANSFERS_PER_THREAD];
+        AtomicLong lockFailures = new AtomicLong();
+        AtomicLong otherFailures = new AtomicLong();
+
+        for (int t = 0; t < THREADS; t++) {
+            long[] threadLatencies = latencies[t];
+            pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < TRANSFERS_PER_THREAD; i++) {
+                    int from = random.nextInt(ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(ACCOUNTS - 1)) % ACCOUNTS;
+                    TransferRequest request = new TransferRequest(accountIds.get(from), accountIds.get(to), AMOUNT, "benchmark");
+
+                    long began = System.nanoTime();
+                    try {
+                        transactionService.transferFunds(request);
+                    } catch (PessimisticLockingFailureException e) {
+                        lockFailures.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        otherFailures.incrementAndGet();
+                    }
+                    threadLatencies[i] = System.nanoTime() - began;
+                }
+                return null;
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        long elapsed = System.nanoTime() - began;
+        awaitPersisted();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        double throughput = all.length / (elapsed / 1_000_000_000.0);
+        Money totalAfter = totalBalance(accountIds);
+
+        System.out.printf("[%s] transfers=%d threads=%d accounts=%d%n", getClass().getSimpleName(), all.length, THREADS, ACCOUNTS);
+        System.out.printf("throughput=%.1f ops/s p50=%.2f ms p99=%.2f ms max=%.2f ms%n",
+                throughput, percentile(all, 0.50), percentile(all, 0.99), all[all.length - 1] / 1_000_000.0);
+        System.out.printf("lockFailures=%d otherFailures=%d totalBefore=%s totalAfter=%s%n",
+                lockFailures.get(), otherFailures.get(), totalBefore, totalAfter);
+
+        assertEquals(0, lockFailures.get(), "transfers should never deadlock");
+        assertEquals(totalBefore, totalAfter, "money must be conserved");
+    }
+
+    /**
+     * Hook for modes that persist balances asynchronously.
+     */
+    protected void awaitPersisted() {
+    }
+
+    private List<Long> createHotAccounts() {
+        User user = testAccounts.createUser(LocalDateTime.now());
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < ACCOUNTS; i++) {
+            ids.add(testAccounts.createAccount(user, "BENCH", OPENING_BALANCE));
+        }
+        return ids;
+    }
+
+    private Money totalBalance(List<Long> accountIds) {
+        return bankAccountRepository.findAllById(accountIds).stream()
+                .map(BankAccount::getBalance)
+                .reduce(Money.ZERO, Money::plus);
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
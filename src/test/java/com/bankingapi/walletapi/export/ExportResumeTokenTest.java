@@ -0,0 +1,148 @@
+package com.bankingapi.walletapi.export;
+
+import com.bankingapi.walletapi.support.TestAccounts;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A parallel download cut off mid-stream and resumed with the token of the first incomplete chunk
+ * of its own plan yields exactly the rows of the uninterrupted download, even when postings were
+ * written in between.
+ */
+@SpringBootTest(properties = "wallet.export.chunk-ids=2")
+@AutoConfigureMockMvc
+@WithMockUser
+class ExportResumeTokenTest {
+
+    private static final int TRANSFERS = 6;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ParallelCsvExporter parallelCsvExporter;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    private TestAccounts.Pair pair;
+
+    @BeforeEach
+    void setUp() {
+        pair = testAccounts.createPair("EXPORT", LocalDateTime.now());
+        testAccounts.transfer(pair, TRANSFERS, "export");
+    }
+
+    @Test
+    void truncatedDownloadResumesWhereItBroke() throws Exception {
+        MvcResult download = download(get("/api/transactions/csv")
+                .param("accountId", String.valueOf(pair.senderId()))
+                .param("parallel", "true"));
+        byte[] full = download.getResponse().getContentAsByteArray();
+        String plan = download.getResponse().getHeader(ParallelCsvExporter.PLAN_HEADER);
+        assertNotNull(plan);
+
+        List<ExportChunk> chunks = objectMapper.readValue(mockMvc.perform(get("/api/transactions/csv/chunks")
+                        .param("plan", plan))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString(), new TypeReference<>() {
+        });
+        List<Integer> memberEnds = memberEnds(full);
+        assertEquals(chunks.size(), memberEnds.size(), "one gzip member per chunk");
+        assertTrue(chunks.size() >= 3, "the export should span several chunks");
+
+        // Cut the stream a few bytes into a member in the middle.
+        byte[] truncated = Arrays.copyOf(full, memberEnds.get(chunks.size() / 2 - 1) + 5);
+        List<Integer> received = memberEnds(truncated);
+        testAccounts.transfer(pair, 2, "export");
+
+        byte[] resumed = download(get("/api/transactions/csv")
+                .param("resume", chunks.get(received.size()).resumeToken()))
+                .getResponse().getContentAsByteArray();
+        ByteArrayOutputStream continued = new ByteArrayOutputStream();
+        continued.write(truncated, 0, received.get(received.size() - 1));
+        continued.write(resumed);
+
+        List<String> lines = gunzip(continued.toByteArray());
+        assertEquals(gunzip(full), lines);
+        assertEquals(TRANSFERS + 1, lines.size(), "header plus the postings that existed when the export was planned");
+    }
+
+    @Test
+    void rejectsAlteredTokens() {
+        String token = parallelCsvExporter.chunks(new TransactionExportFilter(pair.senderId(), null, null)).get(0).resumeToken();
+        String forged = "x" + token.substring(1);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parallelCsvExporter.resume(forged));
+        assertEquals("Invalid resume token", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> parallelCsvExporter.resume("not a token"));
+    }
+
+    private MvcResult download(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+    }
+
+    // Where each complete gzip member ends. GZIPOutputStream writes a 10-byte header, raw deflate
+    // data and an 8-byte trailer, so a member is complete once its deflate data and trailer are.
+    private static List<Integer> memberEnds(byte[] data) throws DataFormatException {
+        List<Integer> ends = new ArrayList<>();
+        int offset = 0;
+        byte[] sink = new byte[8192];
+        while (offset + 10 < data.length) {
+            Inflater inflater = new Inflater(true);
+            inflater.setInput(data, offset + 10, data.length - offset - 10);
+            while (!inflater.finished() && !inflater.needsInput()) {
+                inflater.inflate(sink);
+            }
+            boolean complete = inflater.finished() && inflater.getRemaining() >= 8;
+            int end = data.length - inflater.getRemaining() + 8;
+            inflater.end();
+            if (!complete) {
+                break;
+            }
+            ends.add(end);
+            offset = end;
+        }
+        return ends;
+    }
+
+    private static List<String> gunzip(byte[] data) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+        }
+    }
+}
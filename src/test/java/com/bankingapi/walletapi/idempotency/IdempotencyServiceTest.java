@@ -0,0 +1,135 @@
+package com.bankingapi.walletapi.idempotency;
+
+import com.bankingapi.walletapi.dto.TransactionResponse;
+import com.bankingapi.walletapi.dto.TransferRequest;
+import com.bankingapi.walletapi.exception.IdempotencyKeyReusedException;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.User;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.service.TransactionService;
+import com.bankingapi.walletapi.support.TestAccounts;
+import com.fasterxml.jackson.core.type.TypeReference;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.security.Principal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A keyed transfer moves money once however often, and however concurrently, it is sent; the
+ * retries get the first response back.
+ */
+@SpringBootTest
+class IdempotencyServiceTest {
+
+    private static final Money OPENING_BALANCE = Money.of("100.00");
+    private static final Money AMOUNT = Money.of("10.00");
+    private static final TypeReference<List<TransactionResponse>> RESPONSE_TYPE = new TypeReference<>() {};
+
+    private final Principal alice = () -> "alice";
+    private final Principal bob = () -> "bob";
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    private Long senderId;
+    private Long receiverId;
+
+    @BeforeEach
+    void setUp() {
+        User user = testAccounts.createUser(LocalDateTime.now());
+        senderId = testAccounts.createAccount(user, "IDEM", OPENING_BALANCE);
+        receiverId = testAccounts.createAccount(user, "IDEM", OPENING_BALANCE);
+    }
+
+    @Test
+    void duplicateReplaysTheFirstResponse() {
+        String key = UUID.randomUUID().toString();
+        TransferRequest request = new TransferRequest(senderId, receiverId, AMOUNT, "once");
+
+        List<TransactionResponse> first = transfer(alice, key, request);
+        List<TransactionResponse> retry = transfer(alice, key, request);
+
+        assertEquals(first, retry);
+        assertEquals(OPENING_BALANCE.minus(AMOUNT), balance(senderId));
+    }
+
+    @Test
+    void rejectsAKeyReusedForADifferentRequest() {
+        String key = UUID.randomUUID().toString();
+        transfer(alice, key, new TransferRequest(senderId, receiverId, AMOUNT, "first"));
+
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> transfer(alice, key, new TransferRequest(senderId, receiverId, Money.of("20.00"), "second")));
+        assertEquals(OPENING_BALANCE.minus(AMOUNT), balance(senderId));
+    }
+
+    @Test
+    void keysOfDifferentCallersDoNotCollide() {
+        String key = UUID.randomUUID().toString();
+        TransferRequest request = new TransferRequest(senderId, receiverId, AMOUNT, "per caller");
+
+        transfer(alice, key, request);
+        transfer(bob, key, request);
+
+        assertEquals(OPENING_BALANCE.minus(AMOUNT).minus(AMOUNT), balance(senderId));
+    }
+
+    @Test
+    void concurrentDuplicatesMoveMoneyOnce() throws Exception {
+        String key = UUID.randomUUID().toString();
+        TransferRequest request = new TransferRequest(senderId, receiverId, AMOUNT, "concurrent");
+        int threads = 8;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<TransactionResponse>>> responses = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            responses.add(pool.submit(() -> {
+                start.await();
+                return transfer(alice, key, request);
+            }));
+        }
+        start.countDown();
+
+        List<TransactionResponse> first = responses.get(0).get();
+        for (Future<List<TransactionResponse>> response : responses) {
+            assertEquals(first, response.get());
+        }
+        pool.shutdown();
+
+        assertEquals(OPENING_BALANCE.minus(AMOUNT), balance(senderId));
+        assertEquals(OPENING_BALANCE.plus(AMOUNT), balance(receiverId));
+    }
+
+    private List<TransactionResponse> transfer(Principal principal, String key, TransferRequest request) {
+        return idempotencyService.execute(principal, key, "transfer", request, RESPONSE_TYPE,
+                () -> transactionService.transferFunds(request));
+    }
+
+    private Money balance(Long accountId) {
+        return bankAccountRepository.findById(accountId).map(BankAccount::getBalance).orElseThrow();
+    }
+}
@@ -0,0 +1,70 @@
+package com.bankingapi.walletapi.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cursors round-trip, and anything not signed by this instance's key is rejected as a bad request.
+ */
+class CursorCodecTest {
+
+    private static final TransactionCursor CURSOR = new TransactionCursor(LocalDateTime.of(2026, 3, 14, 15, 9, 26), 42L);
+
+    private final CursorCodec codec = codec("secret");
+
+    @Test
+    void decodesWhatItEncoded() {
+        assertEquals(CURSOR, codec.decode(codec.encode(CURSOR)));
+    }
+
+    @Test
+    void rejectsAnAlteredPosition() {
+        String signed = codec.encode(CURSOR);
+        String signature = signed.substring(signed.indexOf('.') + 1);
+        String forged = encode(new TransactionCursor(CURSOR.createdAt(), 1L).payload()) + "." + signature;
+
+        assertInvalid(forged);
+    }
+
+    @Test
+    void rejectsAnAlteredSignature() {
+        String signed = codec.encode(CURSOR);
+        int start = signed.indexOf('.') + 1;
+        char first = signed.charAt(start);
+        assertInvalid(signed.substring(0, start) + (first == 'A' ? 'B' : 'A') + signed.substring(start + 1));
+    }
+
+    @Test
+    void rejectsACursorSignedWithAnotherKey() {
+        assertInvalid(codec("other secret").encode(CURSOR));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid("");
+        assertInvalid("no-signature");
+        assertInvalid("not base64!.not base64!");
+        assertInvalid(codec.sign("not a position"));
+    }
+
+    private void assertInvalid(String cursor) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> codec.decode(cursor));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+
+    private static CursorCodec codec(String secret) {
+        PaginationProperties properties = new PaginationProperties();
+        properties.setCursorSecret(secret);
+        return new CursorCodec(properties);
+    }
+
+    private static String encode(String payload) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,76 @@
+package com.bankingapi.walletapi.query;
+
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.support.TestAccounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Each list endpoint must issue the same number of statements whether it returns a handful of
+ * rows or many; a count that grows with the result means a per-row (N+1) load crept back in.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bankingapi.walletapi.query.SqlStatementCounter")
+@AutoConfigureMockMvc
+@WithMockUser
+class ListEndpointQueryCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    private LocalDateTime from;
+    private TestAccounts.Pair pair;
+
+    @BeforeEach
+    void setUp() {
+        from = LocalDateTime.now().minusMinutes(1);
+        pair = testAccounts.createPair("QC", LocalDateTime.now());
+    }
+
+    @Test
+    void listEndpointsIssueConstantQueryCount() throws Exception {
+        String[] endpoints = {
+                "/api/transactions/paginated?page=0&size=200",
+                "/api/transactions/paginated?cursor=&size=200",
+                "/api/transactions/filter/date?fromDate=" + from + "&toDate=" + from.plusDays(1),
+                "/api/transactions/filter/amount?minAmount=1.00&maxAmount=1.00",
+                "/api/accounts",
+                "/api/transactions/account/" + pair.senderId(),
+                "/api/transactions/account/" + pair.senderId() + "?limit=200"
+        };
+
+        testAccounts.transfer(pair, 2, "query count");
+        int[] few = countStatements(endpoints);
+        testAccounts.createAccount("QC", Money.of("1000.00"), LocalDateTime.now());
+        testAccounts.transfer(pair, 40, "query count");
+        int[] many = countStatements(endpoints);
+
+        for (int i = 0; i < endpoints.length; i++) {
+            assertEquals(few[i], many[i], "statement count grew with the result size for " + endpoints[i]);
+        }
+    }
+
+    private int[] countStatements(String[] endpoints) throws Exception {
+        int[] counts = new int[endpoints.length];
+        for (int i = 0; i < endpoints.length; i++) {
+            SqlStatementCounter.reset();
+            mockMvc.perform(get(endpoints[i])).andExpect(status().isOk());
+            counts[i] = SqlStatementCounter.count();
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,114 @@
+package com.bankingapi.walletapi.query;
+
+import com.bankingapi.walletapi.ledger.PostingPartitions;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.TransactionRepository;
+import com.bankingapi.walletapi.support.TestAccounts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the date-bounded {@link TransactionRepository} queries, captures the SQL Hibernate sends
+ * and checks with EXPLAIN that PostgreSQL only plans a scan of the partition of the month asked
+ * for, not the neighbouring months or the default partition.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.bankingapi.walletapi.query.SqlStatementCounter")
+class PostingPartitionPruningTest {
+
+    private static final Pattern PARTITION = Pattern.compile(PostingPartitions.TABLE + "_(p\\d{6}|default)");
+
+    private static final String SEED_SQL = """
+            with e as (
+                insert into ledger_entries (id, created_at, receiver_account_id)
+                values (nextval('ledger_entries_seq'), ?, ?)
+                returning id, created_at, receiver_account_id)
+            insert into ledger_postings (id, entry_id, account_id, created_at, amount)
+            select nextval('transactions_seq'), e.id, e.receiver_account_id, e.created_at, 1.00 from e
+            """;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private PostingPartitions postingPartitions;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private YearMonth month;
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Long accountId;
+
+    @BeforeEach
+    void setUp() {
+        YearMonth current = YearMonth.now();
+        month = current.minusMonths(2);
+        start = month.atDay(1).atStartOfDay();
+        end = month.plusMonths(1).atDay(1).atStartOfDay();
+
+        assertTrue(postingPartitions.isPartitioned(), "ledger_postings should be partitioned at startup");
+        postingPartitions.create(current.minusMonths(3), current);
+        accountId = testAccounts.createAccount("PART", Money.of("1000.00"), LocalDateTime.now().minusYears(1));
+        for (YearMonth seeded = current.minusMonths(3); !seeded.isAfter(current); seeded = seeded.plusMonths(1)) {
+            jdbcTemplate.update(SEED_SQL, seeded.atDay(1).atTime(12, 0), accountId);
+        }
+    }
+
+    @Test
+    void accountHistoryScansOneMonth() {
+        assertScansOnlyMonth(() -> transactionRepository.findAccountHistory(accountId, start, end), accountId, start, end);
+    }
+
+    @Test
+    void accountRangeScansOneMonth() {
+        LocalDateTime last = end.minusNanos(1_000);
+        assertScansOnlyMonth(() -> transactionRepository.findByAccount_IdAndCreatedAtBetweenOrderByCreatedAtAscIdAsc(
+                accountId, start, last), accountId, start, last);
+    }
+
+    @Test
+    void dateRangeScansOneMonth() {
+        LocalDateTime last = end.minusNanos(1_000);
+        assertScansOnlyMonth(() -> transactionRepository.findRowsByCreatedAtBetween(start, last), start, last);
+    }
+
+    @Test
+    void sumBetweenScansOneMonth() {
+        assertScansOnlyMonth(() -> transactionRepository.sumAmountBetween(accountId, start, end), accountId, start, end);
+    }
+
+    private void assertScansOnlyMonth(Runnable query, Object... params) {
+        SqlStatementCounter.reset();
+        query.run();
+        List<String> statements = SqlStatementCounter.statements();
+        String sql = statements.get(statements.size() - 1);
+
+        Set<String> scanned = new TreeSet<>();
+        for (String line : jdbcTemplate.queryForList("explain " + sql, String.class, params)) {
+            Matcher matcher = PARTITION.matcher(line);
+            while (matcher.find()) {
+                scanned.add(matcher.group());
+            }
+        }
+        assertEquals(Set.of(PostingPartitions.partitionName(month)), scanned, "partitions scanned by: " + sql);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bankingapi.walletapi.retry;
+
+import com.bankingapi.walletapi.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * A version conflict replays the whole action in a new transaction, up to the configured number
+ * of attempts; any other failure is not retried. Meters are never tagged per account.
+ */
+class OptimisticRetryExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger attempts = new AtomicInteger();
+    private OptimisticRetryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        RetryProperties properties = new RetryProperties();
+        properties.setMaxAttempts(3);
+        properties.setInitialBackoff(Duration.ofMillis(1));
+        properties.setMaxBackoff(Duration.ofMillis(2));
+        executor = new OptimisticRetryExecutor(mock(PlatformTransactionManager.class), properties, meterRegistry);
+    }
+
+    @Test
+    void replaysTheActionAfterAVersionConflict() {
+        String result = executor.execute("deposit", 1L, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("stale version");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, count("wallet.account.conflicts"));
+        assertEquals(2.0, count("wallet.account.retries"));
+        assertEquals(0.0, count("wallet.account.retries.exhausted"));
+    }
+
+    @Test
+    void givesUpWithConcurrentUpdateAfterMaxAttempts() {
+        assertThrows(ConcurrentUpdateException.class, () -> executor.execute("withdraw", 1L, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale version");
+        }));
+
+        assertEquals(3, attempts.get());
+        assertEquals(1.0, count("wallet.account.retries.exhausted"));
+    }
+
+    @Test
+    void doesNotRetryOtherFailures() {
+        assertThrows(IllegalStateException.class, () -> executor.execute("deposit", 1L, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("not a conflict");
+        }));
+
+        assertEquals(1, attempts.get());
+        assertEquals(0.0, count("wallet.account.conflicts"));
+    }
+
+    @Test
+    void tagsMetersByOperationOnly() {
+        executor.execute("deposit", 1L, () -> "done");
+        executor.execute("deposit", 2L, () -> "done");
+
+        assertEquals(1, meterRegistry.find("wallet.account.operations").counters().size());
+        assertEquals(2.0, count("wallet.account.operations"));
+        assertNull(meterRegistry.find("wallet.account.operations").tagKeys("account").counter());
+    }
+
+    private double count(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(counter -> counter.count()).sum();
+    }
+}
@@ -0,0 +1,75 @@
+package com.bankingapi.walletapi.service;
+
+import com.bankingapi.walletapi.dto.BatchTransferItemResult;
+import com.bankingapi.walletapi.dto.BatchTransferResponse;
+import com.bankingapi.walletapi.dto.TransferRequest;
+import com.bankingapi.walletapi.enums.TransferStatus;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.User;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.support.TestAccounts;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * A batch reports every rejected transfer with its own status and still applies the others.
+ */
+@SpringBootTest
+class BatchTransferStatusTest {
+
+    private static final Money OPENING_BALANCE = Money.of("100.00");
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private BankAccountService bankAccountService;
+
+    @Autowired
+    private BankAccountRepository bankAccountRepository;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    @Test
+    void reportsAStatusPerTransfer() {
+        User user = testAccounts.createUser(LocalDateTime.now());
+        Long sender = testAccounts.createAccount(user, "BATCH", OPENING_BALANCE);
+        Long receiver = testAccounts.createAccount(user, "BATCH", OPENING_BALANCE);
+        Long frozen = testAccounts.createAccount(user, "BATCH", OPENING_BALANCE);
+        bankAccountService.freezeAccount(frozen);
+
+        BatchTransferResponse response = transactionService.transferFundsBatch(Arrays.asList(
+                new TransferRequest(sender, receiver, Money.of("10.00"), "applied"),
+                new TransferRequest(sender, receiver, Money.of("1000.00"), "too much"),
+                new TransferRequest(sender, frozen, Money.of("10.00"), "frozen receiver"),
+                new TransferRequest(sender, Long.MAX_VALUE, Money.of("10.00"), "missing receiver"),
+                new TransferRequest(sender, receiver, Money.of("-1.00"), "negative"),
+                null,
+                new TransferRequest(sender, receiver, Money.of("5.00"), "applied after rejections")));
+
+        assertEquals(List.of(TransferStatus.OK, TransferStatus.INSUFFICIENT_FUNDS, TransferStatus.FROZEN,
+                        TransferStatus.NOT_FOUND, TransferStatus.INVALID, TransferStatus.INVALID, TransferStatus.OK),
+                response.getResults().stream().map(BatchTransferItemResult::getStatus).toList());
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6),
+                response.getResults().stream().map(BatchTransferItemResult::getIndex).toList());
+        assertEquals(2, response.getSucceeded());
+        assertEquals(5, response.getFailed());
+
+        assertEquals(Money.of("85.00"), balance(sender));
+        assertEquals(Money.of("115.00"), balance(receiver));
+        assertEquals(OPENING_BALANCE, balance(frozen));
+    }
+
+    private Money balance(Long accountId) {
+        return bankAccountRepository.findById(accountId).map(BankAccount::getBalance).orElseThrow();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bankingapi.walletapi.statement;
+
+import com.bankingapi.walletapi.support.TestAccounts;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Monthly statements answer 304 while their ETag is current, get a new ETag once a posting
+ * changes them, and concurrent requests for one missing statement share a single render.
+ */
+@SpringBootTest(properties = "wallet.statement-cache.directory=${java.io.tmpdir}/wallet-statements-test")
+@AutoConfigureMockMvc
+@WithMockUser
+class StatementCacheTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private StatementCache statementCache;
+
+    @Autowired
+    private TestAccounts testAccounts;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final YearMonth month = YearMonth.now();
+    private TestAccounts.Pair pair;
+
+    @BeforeEach
+    void setUp() {
+        pair = testAccounts.createPair("STMT", month.atDay(1).atStartOfDay());
+        testAccounts.transfer(pair, 1, "statement");
+    }
+
+    @Test
+    void answersNotModifiedUntilAPostingChangesTheStatement() throws Exception {
+        String etag = perform(monthly(), 200).getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        perform(monthly().header(HttpHeaders.IF_NONE_MATCH, etag), 304);
+
+        testAccounts.transfer(pair, 1, "statement");
+        MvcResult changed = perform(monthly().header(HttpHeaders.IF_NONE_MATCH, etag), 200);
+        assertNotEquals(etag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void concurrentRequestsShareOneRender() throws Exception {
+        int threads = 8;
+        double missesBefore = count("miss");
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<CachedStatement>> statements = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            statements.add(pool.submit(() -> {
+                start.await();
+                return statementCache.monthly(pair.senderId(), month).join();
+            }));
+        }
+        start.countDown();
+
+        CachedStatement first = statements.get(0).get();
+        for (Future<CachedStatement> statement : statements) {
+            assertEquals(first, statement.get());
+        }
+        pool.shutdown();
+        assertEquals(1.0, count("miss") - missesBefore, "only one request should render");
+    }
+
+    private MockHttpServletRequestBuilder monthly() {
+        return get("/api/statements/monthly-pdf")
+                .param("accountId", String.valueOf(pair.senderId()))
+                .param("year", String.valueOf(month.getYear()))
+                .param("month", String.valueOf(month.getMonthValue()));
+    }
+
+    private MvcResult perform(MockHttpServletRequestBuilder builder, int expectedStatus) throws Exception {
+        MvcResult started = mockMvc.perform(builder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(started)).andExpect(status().is(expectedStatus)).andReturn();
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("wallet.statement.cache", "result", result).count();
+    }
+}
@@ -0,0 +1,92 @@
+package com.bankingapi.walletapi.support;
+
+import com.bankingapi.walletapi.dto.TransferRequest;
+import com.bankingapi.walletapi.model.BankAccount;
+import com.bankingapi.walletapi.model.User;
+import com.bankingapi.walletapi.money.Money;
+import com.bankingapi.walletapi.repository.BankAccountRepository;
+import com.bankingapi.walletapi.repository.UserRepository;
+import com.bankingapi.walletapi.service.TransactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Creates the users and checking accounts that tests and benchmarks run against. Emails and
+ * account numbers are made unique, so tests can share a database.
+ */
+@Component
+public class TestAccounts {
+
+    /**
+     * The amount each {@link #transfer} moves.
+     */
+    public static final Money AMOUNT = Money.of("1.00");
+
+    private static final Money OPENING_BALANCE = Money.of("1000.00");
+
+    private final UserRepository userRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionService transactionService;
+
+    @Autowired
+    public TestAccounts(UserRepository userRepository, BankAccountRepository bankAccountRepository,
+                        TransactionService transactionService) {
+        this.userRepository = userRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionService = transactionService;
+    }
+
+    /**
+     * Two accounts of one user, the sender and receiver of {@link #transfer}.
+     */
+    public record Pair(Long senderId, Long receiverId) {
+    }
+
+    public User createUser(LocalDateTime createdAt) {
+        User user = new User();
+        user.setName("Test User");
+        user.setEmail("test-" + System.nanoTime() + "@example.com");
+        user.setPassword("test");
+        user.setCreatedAt(createdAt);
+        return userRepository.save(user);
+    }
+
+    /**
+     * Creates an account for {@code user} and returns its id.
+     */
+    public Long createAccount(User user, String numberPrefix, Money balance) {
+        BankAccount account = new BankAccount();
+        account.setUser(user);
+        account.setAccountNumber(numberPrefix + System.nanoTime());
+        account.setAccountType("CHECKING");
+        account.setBalance(balance);
+        account.setCreatedAt(user.getCreatedAt());
+        return bankAccountRepository.save(account).getId();
+    }
+
+    /**
+     * Creates an account with a user of its own, both dated {@code createdAt}, and returns its id.
+     */
+    public Long createAccount(String numberPrefix, Money balance, LocalDateTime createdAt) {
+        return createAccount(createUser(createdAt), numberPrefix, balance);
+    }
+
+    /**
+     * Creates a user dated {@code createdAt} with two accounts holding 1000.00 each.
+     */
+    public Pair createPair(String numberPrefix, LocalDateTime createdAt) {
+        User user = createUser(createdAt);
+        return new Pair(createAccount(user, numberPrefix, OPENING_BALANCE), createAccount(user, numberPrefix, OPENING_BALANCE));
+    }
+
+    /**
+     * Transfers {@link #AMOUNT} from the pair's sender to its receiver {@code times} times.
+     */
+    public void transfer(Pair pair, int times, String description) {
+        for (int i = 0; i < times; i++) {
+            transactionService.transferFunds(new TransferRequest(pair.senderId(), pair.receiverId(), AMOUNT, description));
+        }
+    }
+}